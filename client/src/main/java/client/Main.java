@@ -3,6 +3,10 @@ package client;
 import client.controllers.HotelController;
 import client.controllers.RegisterLoginController;
 import client.controllers.WishListController;
+import client.controllers.WishListWatcher;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.codec.json.Jackson2SmileDecoder;
+import org.springframework.http.codec.json.Jackson2SmileEncoder;
 import org.springframework.web.reactive.function.client.WebClient;
 
 import java.util.Scanner;
@@ -12,12 +16,19 @@ public class Main {
     private static boolean isAuthenticated = false;
 
     public static void main(String[] args) {
-        WebClient.Builder webClientBuilder = WebClient.builder();
+        // Prefer the compact Smile encoding, the server falls back to JSON for endpoints that do not support it
+        WebClient.Builder webClientBuilder = WebClient.builder()
+                .codecs(codecs -> {
+                    codecs.customCodecs().register(new Jackson2SmileDecoder());
+                    codecs.customCodecs().register(new Jackson2SmileEncoder());
+                })
+                .defaultHeader(HttpHeaders.ACCEPT, "application/x-jackson-smile", "application/json;q=0.9", "*/*;q=0.8");
 
         // Initialize controllers
         RegisterLoginController registerLoginController = new RegisterLoginController(webClientBuilder);
         HotelController hotelController = new HotelController(webClientBuilder);
         WishListController wishListController = new WishListController(webClientBuilder);
+        WishListWatcher wishListWatcher = new WishListWatcher("ws://localhost:8080/ws");
 
         Scanner scanner = new Scanner(System.in);
         String username = "";
@@ -68,6 +79,7 @@ public class Main {
 
                 case "3":
                     // Exit the application
+                    wishListWatcher.close();
                     System.out.println("Goodbye!");
                     return;
 
@@ -90,15 +102,18 @@ public class Main {
                     System.out.println("8. Remove a hotel from a wishlist");
                     System.out.println("9. Share a wishlist");
                     System.out.println("10. View a shared wishlist");
-                    System.out.println("11. Logout");
-                    System.out.println("12. Exit");
+                    System.out.println("11. Queue a wishlist change");
+                    System.out.println("12. Send queued wishlist changes (" + wishListController.getPendingOperationCount() + " pending)");
+                    System.out.println("13. Watch a wishlist for changes");
+                    System.out.println("14. Logout");
+                    System.out.println("15. Exit");
 
                     String option = null;
                     while (option == null || option.trim().isEmpty()) {
 
                         option = scanner.nextLine().trim();
                         if (option.isEmpty()) {
-                            System.out.println("Please enter a valid option (1-12):");
+                            System.out.println("Please enter a valid option (1-15):");
                         }
                     }
 
@@ -186,14 +201,75 @@ public class Main {
                             break;
 
                         case "11":
+                            // Queue a change, sent together with the other queued changes
+                            System.out.print("Enter the change (add, remove, move, rename): ");
+                            String change = scanner.nextLine().trim();
+                            System.out.print("Enter the wishlist name: ");
+                            String changeWishListName = scanner.nextLine().trim();
+                            try {
+                                switch (change) {
+                                    case "add" -> {
+                                        System.out.print("Enter hotel ID: ");
+                                        wishListController.queueAddHotel(changeWishListName, Long.parseLong(scanner.nextLine().trim()));
+                                    }
+                                    case "remove" -> {
+                                        System.out.print("Enter hotel ID: ");
+                                        wishListController.queueRemoveHotel(changeWishListName, Long.parseLong(scanner.nextLine().trim()));
+                                    }
+                                    case "move" -> {
+                                        System.out.print("Enter hotel ID: ");
+                                        long moveHotelId = Long.parseLong(scanner.nextLine().trim());
+                                        System.out.print("Enter the new position (starting at 0): ");
+                                        wishListController.queueReorderHotel(changeWishListName, moveHotelId, Integer.parseInt(scanner.nextLine().trim()));
+                                    }
+                                    case "rename" -> {
+                                        System.out.print("Enter the new name: ");
+                                        wishListController.queueRename(changeWishListName, scanner.nextLine().trim());
+                                    }
+                                    default -> System.out.println("Unknown change.");
+                                }
+                            } catch (NumberFormatException e) {
+                                System.out.println("Invalid number. Please enter a valid number.");
+                            }
+                            break;
+
+                        case "12":
+                            // Send all queued changes in one request
+                            wishListController.syncPendingOperations(username);
+                            break;
+
+                        case "13":
+                            // Receive the changes of a wishlist as they happen, instead of viewing it again
+                            System.out.print("Watch your own wishlist or a shared one? (own, shared): ");
+                            String watchKind = scanner.nextLine().trim();
+                            if (watchKind.equals("own")) {
+                                System.out.print("Enter the wishlist name: ");
+                                String watchName = scanner.nextLine().trim();
+                                Long watchId = wishListController.findWishListId(username, watchName);
+                                if (watchId == null) {
+                                    System.out.println("WishList " + watchName + " not found.");
+                                } else {
+                                    wishListWatcher.watchWishList(watchId);
+                                }
+                            } else if (watchKind.equals("shared")) {
+                                System.out.print("Enter the sharing code: ");
+                                wishListWatcher.watchSharedWishList(scanner.nextLine().trim());
+                            } else {
+                                System.out.println("Invalid option. Please try again.");
+                            }
+                            break;
+
+                        case "14":
                             // Logout
+                            wishListWatcher.stopWatching();
                             System.out.println("You have logged out.");
                             username = "";
                             isAuthenticated = false;
                             break;
 
-                        case "12":
+                        case "15":
                             // Exit the application
+                            wishListWatcher.close();
                             exit = true;
                             System.out.println("Goodbye!");
                             break;
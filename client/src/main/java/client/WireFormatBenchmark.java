@@ -0,0 +1,84 @@
+package client;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import commons.Hotel;
+import commons.WishList;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Compares the size and the encode/decode time of JSON and Smile for hotel lists and wishlists.
+ * Run with: java client.WireFormatBenchmark [number of hotels]
+ */
+public class WireFormatBenchmark {
+    private static final String[] FACILITIES = {"bar", "spa", "pool", "parking", "breakfast", "gym", "wifi", "restaurant"};
+    private static final int WARMUP_ROUNDS = 20;
+    private static final int MEASURED_ROUNDS = 50;
+
+    public static void main(String[] args) throws IOException {
+        int hotelCount = args.length > 0 ? Integer.parseInt(args[0]) : 10_000;
+        ObjectMapper json = new ObjectMapper();
+        ObjectMapper smile = new ObjectMapper(new SmileFactory());
+
+        List<Hotel> hotels = createHotels(json, hotelCount);
+        WishList wishList = new WishList("benchmark");
+        hotels.subList(0, Math.min(500, hotels.size())).forEach(wishList::addHotel);
+
+        TypeReference<List<Hotel>> hotelList = new TypeReference<>() {};
+        System.out.println("Hotel list (" + hotelCount + " hotels)");
+        measure("  JSON ", json, hotels, hotelList);
+        measure("  Smile", smile, hotels, hotelList);
+
+        TypeReference<WishList> wishListType = new TypeReference<>() {};
+        System.out.println("WishList (" + wishList.getHotels().size() + " hotels)");
+        measure("  JSON ", json, wishList, wishListType);
+        measure("  Smile", smile, wishList, wishListType);
+    }
+
+    private static <T> void measure(String label, ObjectMapper mapper, T value, TypeReference<T> type) throws IOException {
+        byte[] bytes = mapper.writeValueAsBytes(value);
+        for (int i = 0; i < WARMUP_ROUNDS; i++) {
+            mapper.readValue(mapper.writeValueAsBytes(value), type);
+        }
+
+        long encodeNanos = 0;
+        long decodeNanos = 0;
+        for (int i = 0; i < MEASURED_ROUNDS; i++) {
+            long start = System.nanoTime();
+            bytes = mapper.writeValueAsBytes(value);
+            long encoded = System.nanoTime();
+            mapper.readValue(bytes, type);
+            decodeNanos += System.nanoTime() - encoded;
+            encodeNanos += encoded - start;
+        }
+        System.out.printf("%s %,10d bytes  encode %8.3f ms  decode %8.3f ms%n", label, bytes.length,
+                encodeNanos / 1e6 / MEASURED_ROUNDS, decodeNanos / 1e6 / MEASURED_ROUNDS);
+    }
+
+    private static List<Hotel> createHotels(ObjectMapper mapper, int count) {
+        List<Hotel> hotels = new ArrayList<>(count);
+        for (int i = 1; i <= count; i++) {
+            Map<String, Object> hotel = new LinkedHashMap<>();
+            hotel.put("id", i);
+            hotel.put("name", "Hotel " + i);
+            hotel.put("stars", 1 + i % 5);
+            hotel.put("page_url", "/" + i % 10 + "/hotel-" + i);
+            hotel.put("photo", "image" + i % 3 + ".jpg");
+            List<String> facilities = new ArrayList<>();
+            for (int f = 0; f < FACILITIES.length; f++) {
+                if ((i >> f & 1) == 1) {
+                    facilities.add(FACILITIES[f]);
+                }
+            }
+            hotel.put("facilities", facilities);
+            hotels.add(mapper.convertValue(hotel, Hotel.class));
+        }
+        return hotels;
+    }
+}
@@ -0,0 +1,107 @@
+package client;
+
+import commons.Hotel;
+import commons.LongOrderedSet;
+import commons.WishList;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Compares membership checks, adds and removes on a list of boxed hotel ids, the way WishList kept its
+ * hotels before, with WishList.addHotel and WishList.removeHotel as they are now, and with the LongOrderedSet
+ * index of WishList alone, for growing wishlist sizes. WishList checks membership in constant time, but still
+ * removes from the ordered list of its hotels in linear time, so its removes grow with the wishlist.
+ * Run with: java client.WishListBenchmark [largest wishlist size]
+ */
+public class WishListBenchmark {
+    private static final int WARMUP_ROUNDS = 5;
+    private static final int MEASURED_ROUNDS = 10;
+    private static final int OPERATIONS = 10_000;
+
+    public static void main(String[] args) {
+        int largest = args.length > 0 ? Integer.parseInt(args[0]) : 100_000;
+        for (int size = 100; size <= largest; size *= 10) {
+            long[] ids = new Random(size).longs(size, 1, Long.MAX_VALUE).toArray();
+            long[] probes = new Random(-size).longs(OPERATIONS, 0, size).map(i -> ids[(int) i]).toArray();
+            List<Hotel> hotels = new ArrayList<>(size);
+            for (long id : ids) {
+                hotels.add(new BenchmarkHotel(id));
+            }
+            Hotel[] probedHotels = new Hotel[OPERATIONS];
+            for (int i = 0; i < OPERATIONS; i++) {
+                probedHotels[i] = new BenchmarkHotel(probes[i]);
+            }
+            System.out.printf("%,9d hotels  list %10.3f ms  wishlist %10.3f ms  index %8.3f ms%n", size,
+                    measure(() -> listRound(ids, probes)),
+                    measure(() -> wishListRound(hotels, probedHotels)),
+                    measure(() -> setRound(ids, probes)));
+        }
+    }
+
+    private static double measure(Runnable round) {
+        for (int i = 0; i < WARMUP_ROUNDS; i++) {
+            round.run();
+        }
+        long start = System.nanoTime();
+        for (int i = 0; i < MEASURED_ROUNDS; i++) {
+            round.run();
+        }
+        return (System.nanoTime() - start) / 1e6 / MEASURED_ROUNDS;
+    }
+
+    // remove a hotel and add it again at the end, after checking membership each time
+    private static void listRound(long[] ids, long[] probes) {
+        List<Long> list = new ArrayList<>(ids.length);
+        for (long id : ids) {
+            list.add(id);
+        }
+        for (long probe : probes) {
+            if (list.contains(probe)) {
+                list.remove(probe);
+            }
+            if (!list.contains(probe)) {
+                list.add(probe);
+            }
+        }
+    }
+
+    private static void wishListRound(List<Hotel> hotels, Hotel[] probes) {
+        WishList wishList = new WishList("benchmark");
+        for (Hotel hotel : hotels) {
+            wishList.addHotel(hotel);
+        }
+        for (Hotel probe : probes) {
+            wishList.removeHotel(probe);
+            wishList.addHotel(probe);
+        }
+    }
+
+    private static void setRound(long[] ids, long[] probes) {
+        LongOrderedSet set = new LongOrderedSet(ids.length);
+        for (long id : ids) {
+            set.add(id);
+        }
+        for (long probe : probes) {
+            set.remove(probe);
+            set.add(probe);
+        }
+    }
+
+    /**
+     * Hotel with a fixed id, as ids of real hotels are only assigned by the database
+     */
+    private static class BenchmarkHotel extends Hotel {
+        private final long id;
+
+        BenchmarkHotel(long id) {
+            this.id = id;
+        }
+
+        @Override
+        public long getId() {
+            return id;
+        }
+    }
+}
@@ -0,0 +1,87 @@
+package client;
+
+import commons.Person;
+import commons.PersonSummary;
+import commons.WishList;
+import commons.WishListSummary;
+import org.springframework.web.reactive.function.client.WebClient;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Checks against a running server that parallel writers do not lose wishlist updates. Every writer adds its
+ * own hotels to the same wishlist and renames a second wishlist back and forth; afterwards the wishlist must
+ * hold every hotel exactly once and the second wishlist must still exist.
+ * The hotels with ids 1 to writers * hotels per writer must exist.
+ * The same scenario runs against the services in server.services.WishListServiceConcurrencyTest.
+ * Run with: java client.WishListConcurrencyCheck [writers] [hotels per writer]
+ */
+public class WishListConcurrencyCheck {
+
+    public static void main(String[] args) throws Exception {
+        int writers = args.length > 0 ? Integer.parseInt(args[0]) : 16;
+        int hotelsPerWriter = args.length > 1 ? Integer.parseInt(args[1]) : 25;
+        WebClient webClient = WebClient.builder().baseUrl("http://localhost:8080/api/person").build();
+
+        String username = "concurrency-" + UUID.randomUUID();
+        webClient.post().bodyValue(new Person(username)).retrieve().toBodilessEntity().block();
+        for (String name : List.of("shared", "renamed-0")) {
+            webClient.post().uri(uri -> uri.path("/{username}/wishlist").queryParam("wishListName", name).build(username))
+                    .retrieve().toBodilessEntity().block();
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(writers);
+        List<Future<Integer>> failures = new ArrayList<>();
+        for (int writer = 0; writer < writers; writer++) {
+            long firstHotel = 1 + (long) writer * hotelsPerWriter;
+            failures.add(executor.submit(() -> {
+                int failed = 0;
+                for (long hotelId = firstHotel; hotelId < firstHotel + hotelsPerWriter; hotelId++) {
+                    failed += succeeds(webClient.post()
+                            .uri("/{username}/wishlist/shared/addHotel/{hotelId}", username, hotelId)) ? 0 : 1;
+                    failed += succeeds(webClient.put()
+                            .uri("/{username}/wishlist/renamed-0", username)
+                            .bodyValue(new WishList("renamed-1"))) ? 0 : 1;
+                    failed += succeeds(webClient.put()
+                            .uri("/{username}/wishlist/renamed-1", username)
+                            .bodyValue(new WishList("renamed-0"))) ? 0 : 1;
+                }
+                return failed;
+            }));
+        }
+        int failedRequests = 0;
+        for (Future<Integer> failure : failures) {
+            failedRequests += failure.get();
+        }
+        executor.shutdown();
+
+        PersonSummary summary = webClient.get().uri("/{username}/summary", username)
+                .retrieve().bodyToMono(PersonSummary.class).block();
+        int expected = writers * hotelsPerWriter;
+        int stored = summary.getWishLists().stream()
+                .filter(wishList -> wishList.getName().equals("shared"))
+                .mapToInt(WishListSummary::getHotelCount)
+                .sum();
+        System.out.println("Rejected requests (renames of a list that was just renamed by another writer): " + failedRequests);
+        System.out.println("Wishlists: " + summary.getWishLists());
+        System.out.println("Hotels expected " + expected + ", stored " + stored);
+        webClient.delete().uri("/{username}", username).retrieve().toBodilessEntity().block();
+        if (stored != expected || summary.getWishLists().size() != 2) {
+            System.out.println("FAILED: updates were lost");
+            System.exit(1);
+        }
+        System.out.println("OK: no updates were lost");
+    }
+
+    private static boolean succeeds(WebClient.RequestHeadersSpec<?> request) {
+        return Boolean.TRUE.equals(request.retrieve().toBodilessEntity()
+                .map(response -> response.getStatusCode().is2xxSuccessful())
+                .onErrorReturn(false)
+                .block());
+    }
+}
@@ -50,13 +50,13 @@ public class RegisterLoginController {
      */
     public boolean login(String username) {
         // Return false if there's an error
-        return Boolean.TRUE.equals(webClient.get()
+        return Boolean.TRUE.equals(webClient.head()
                 .uri("/{username}", username)
                 .retrieve()
-                .toEntity(Person.class)
+                .toBodilessEntity()
                 .doOnTerminate(() -> System.out.println("Attempted login for user: " + username))
                 .map(response -> {
-                    if (response.getStatusCode().is2xxSuccessful() && response.getBody() != null) {
+                    if (response.getStatusCode().is2xxSuccessful()) {
                         System.out.println("Login successful for user: " + username);
                         return true;
                     }
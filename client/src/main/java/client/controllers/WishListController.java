@@ -1,13 +1,20 @@
 package client.controllers;
 
 import commons.WishList;
+import commons.WishListDelta;
+import commons.WishListOperation;
+import commons.WishListOperationResult;
+import org.springframework.core.ParameterizedTypeReference;
 import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
 
+import java.util.ArrayList;
 import java.util.List;
 
 public class WishListController {
 
     private final WebClient webClient;
+    private final List<WishListOperation> pendingOperations = new ArrayList<>();
 
     public WishListController(WebClient.Builder webClientBuilder) {
         this.webClient = webClientBuilder.baseUrl("http://localhost:8080/api/").build();
@@ -88,7 +95,7 @@ public class WishListController {
         webClient.post()
                 .uri("/person/{username}/wishlist/{name}/addHotel/{hotelId}", username, name, hotelId)
                 .retrieve()
-                .bodyToMono(WishList.class)
+                .bodyToMono(WishListDelta.class)
                 .doOnTerminate(() -> System.out.println("Request Completed"))
                 .subscribe(response -> {
                     System.out.println("Hotel added to WishList: " + response);
@@ -105,7 +112,7 @@ public class WishListController {
         webClient.delete()
                 .uri("/person/{username}/wishlist/{name}/removeHotel/{hotelId}", username, name, hotelId)
                 .retrieve()
-                .bodyToMono(WishList.class)
+                .bodyToMono(WishListDelta.class)
                 .doOnTerminate(() -> System.out.println("Request Completed"))
                 .subscribe(response -> {
                     System.out.println("Hotel removed from WishList: " + response);
@@ -142,4 +149,92 @@ public class WishListController {
                     System.out.println("WishList with Sharing Code " + sharingCode + ": " + response);
                 });
     }
+
+    /**
+     * Look up the id of a wishlist, which identifies its change topic
+     * @param username the username that owns the wishlist
+     * @param name the name of the wishlist
+     * @return the id of the wishlist, null if it could not be found
+     */
+    public Long findWishListId(String username, String name) {
+        return webClient.get()
+                .uri("/person/{username}/wishlist/{name}", username, name)
+                .retrieve()
+                .bodyToMono(WishList.class)
+                .map(WishList::getId)
+                .onErrorResume(error -> Mono.empty())
+                .block();
+    }
+
+    /**
+     * Queue adding a hotel to a wishlist, to be sent with the next sync
+     * @param name the name of the wishlist
+     * @param hotelId the id of the hotel to add
+     */
+    public void queueAddHotel(String name, long hotelId) {
+        pendingOperations.add(WishListOperation.add(name, hotelId));
+    }
+
+    /**
+     * Queue removing a hotel from a wishlist, to be sent with the next sync
+     * @param name the name of the wishlist
+     * @param hotelId the id of the hotel to remove
+     */
+    public void queueRemoveHotel(String name, long hotelId) {
+        pendingOperations.add(WishListOperation.remove(name, hotelId));
+    }
+
+    /**
+     * Queue moving a hotel to another position in a wishlist, to be sent with the next sync
+     * @param name the name of the wishlist
+     * @param hotelId the id of the hotel to move
+     * @param position the new position of the hotel, starting at 0
+     */
+    public void queueReorderHotel(String name, long hotelId, int position) {
+        pendingOperations.add(WishListOperation.reorder(name, hotelId, position));
+    }
+
+    /**
+     * Queue renaming a wishlist, to be sent with the next sync
+     * @param name the current name of the wishlist
+     * @param newName the new name of the wishlist
+     */
+    public void queueRename(String name, String newName) {
+        pendingOperations.add(WishListOperation.rename(name, newName));
+    }
+
+    /**
+     * Getter for the number of queued wishlist edits
+     * @return the number of edits not sent yet
+     */
+    public int getPendingOperationCount() {
+        return pendingOperations.size();
+    }
+
+    /**
+     * Send all queued wishlist edits in one request. The queue is emptied once the server has applied them.
+     * @param username the username that owns the wishlists
+     */
+    public void syncPendingOperations(String username) {
+        if (pendingOperations.isEmpty()) {
+            System.out.println("No pending changes.");
+            return;
+        }
+        List<WishListOperation> operations = new ArrayList<>(pendingOperations);
+        List<WishListOperationResult> results = webClient.post()
+                .uri("/person/{username}/wishlist/batch", username)
+                .bodyValue(operations)
+                .retrieve()
+                .bodyToMono(new ParameterizedTypeReference<List<WishListOperationResult>>() {})
+                .doOnError(error -> System.out.println("Sync failed: " + error.getMessage()))
+                .onErrorResume(error -> Mono.empty())
+                .block();
+        if (results == null) {
+            return;
+        }
+        pendingOperations.subList(0, operations.size()).clear();
+        for (WishListOperationResult result : results) {
+            System.out.println(operations.get(result.getIndex()) + ": " + result.getStatus());
+        }
+    }
 }
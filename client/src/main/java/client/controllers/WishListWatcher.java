@@ -0,0 +1,106 @@
+package client.controllers;
+
+import commons.WishListEvent;
+import org.springframework.messaging.converter.MappingJackson2MessageConverter;
+import org.springframework.messaging.simp.stomp.StompFrameHandler;
+import org.springframework.messaging.simp.stomp.StompHeaders;
+import org.springframework.messaging.simp.stomp.StompSession;
+import org.springframework.messaging.simp.stomp.StompSessionHandlerAdapter;
+import org.springframework.web.socket.client.standard.StandardWebSocketClient;
+import org.springframework.web.socket.messaging.WebSocketStompClient;
+
+import java.lang.reflect.Type;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+public class WishListWatcher {
+
+    private final WebSocketStompClient stompClient;
+    private final String url;
+    private final Map<String, StompSession.Subscription> subscriptions = new HashMap<>();
+    private StompSession session;
+
+    public WishListWatcher(String url) {
+        this.url = url;
+        this.stompClient = new WebSocketStompClient(new StandardWebSocketClient());
+        this.stompClient.setMessageConverter(new MappingJackson2MessageConverter());
+    }
+
+    /**
+     * Print the changes of one of your wishlists as the server pushes them
+     * @param wishListId the id of the wishlist
+     */
+    public void watchWishList(long wishListId) {
+        subscribe("/topic/wishlist/" + wishListId, "WishList " + wishListId);
+    }
+
+    /**
+     * Print the changes of a shared wishlist as the server pushes them
+     * @param sharingCode the sharing code of the wishlist
+     */
+    public void watchSharedWishList(String sharingCode) {
+        subscribe("/topic/shared/" + sharingCode, "WishList with Sharing Code " + sharingCode);
+    }
+
+    /**
+     * Stop receiving the changes of all watched wishlists
+     */
+    public synchronized void stopWatching() {
+        subscriptions.values().forEach(StompSession.Subscription::unsubscribe);
+        subscriptions.clear();
+    }
+
+    /**
+     * Stop watching and close the connection to the server
+     */
+    public synchronized void close() {
+        stopWatching();
+        if (session != null && session.isConnected()) {
+            session.disconnect();
+        }
+        stompClient.stop();
+    }
+
+    private synchronized void subscribe(String destination, String label) {
+        if (subscriptions.containsKey(destination)) {
+            System.out.println("Already watching " + label + ".");
+            return;
+        }
+        StompSession connected = connect();
+        if (connected == null) {
+            return;
+        }
+        subscriptions.put(destination, connected.subscribe(destination, new StompFrameHandler() {
+            @Override
+            public Type getPayloadType(StompHeaders headers) {
+                return WishListEvent.class;
+            }
+
+            @Override
+            public void handleFrame(StompHeaders headers, Object payload) {
+                System.out.println(label + " changed: " + payload);
+            }
+        }));
+        System.out.println("Watching " + label + " for changes.");
+    }
+
+    private StompSession connect() {
+        if (session != null && session.isConnected()) {
+            return session;
+        }
+        // subscriptions do not survive a lost connection
+        subscriptions.clear();
+        try {
+            session = stompClient.connectAsync(url, new StompSessionHandlerAdapter() {}).get(5, TimeUnit.SECONDS);
+            return session;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException | TimeoutException e) {
+            System.out.println("Could not connect for changes: " + e.getMessage());
+        }
+        return null;
+    }
+}
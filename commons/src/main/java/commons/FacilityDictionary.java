@@ -0,0 +1,113 @@
+package commons;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Process wide dictionary of facility names. Every name gets a small integer code and one canonical
+ * {@link HotelFacility} instance, so hotels share facility objects and strings instead of each holding
+ * their own copies. The canonical instances are shared and must not be modified. Names are registered for
+ * stored facilities only, names read from requests are looked up with {@link #find(String)}, so the
+ * dictionary does not grow with names that are never stored.
+ */
+public final class FacilityDictionary {
+    /**
+     * Number of facility codes that fit in a bitmask
+     */
+    public static final int MASK_CAPACITY = Long.SIZE;
+
+    private static final Map<String, HotelFacility> facilities = new ConcurrentHashMap<>();
+    private static final Map<String, Integer> codes = new ConcurrentHashMap<>();
+
+    private FacilityDictionary() {}
+
+    /**
+     * Gets the canonical facility for a name, registering the name if it is new
+     * @param name name of the facility
+     * @return the shared facility instance
+     */
+    public static HotelFacility intern(String name) {
+        HotelFacility facility = facilities.get(name);
+        return facility != null ? facility : register(name);
+    }
+
+    /**
+     * Gets the canonical facility for a name without registering it
+     * @param name name of the facility
+     * @return the shared facility instance, null if the name was never registered
+     */
+    public static HotelFacility find(String name) {
+        return facilities.get(name);
+    }
+
+    /**
+     * Gets the canonical string for a facility name, registering the name if it is new
+     * @param name name of the facility
+     * @return the shared string with the same content
+     */
+    public static String internName(String name) {
+        return name == null ? null : intern(name).getName();
+    }
+
+    /**
+     * Gets the code of a facility name, registering the name if it is new
+     * @param name name of the facility
+     * @return the code of the facility, codes are assigned from 0 in order of registration
+     */
+    public static int codeOf(String name) {
+        Integer code = codes.get(name);
+        if (code == null) {
+            register(name);
+            code = codes.get(name);
+        }
+        return code;
+    }
+
+    /**
+     * Checks whether a facility name was registered
+     * @param name name of the facility
+     * @return true if some facility has this name
+     */
+    public static boolean isKnown(String name) {
+        return facilities.containsKey(name);
+    }
+
+    /**
+     * Stores a set of facilities as a bitmask, with bit n set for the facility with code n. Facilities with
+     * a code that does not fit in the mask are left out, see {@link #fitsInMask(String)}.
+     * @param facilities the facilities
+     * @return the bitmask
+     */
+    public static long toMask(Collection<HotelFacility> facilities) {
+        long mask = 0;
+        if (facilities != null) {
+            for (HotelFacility facility : facilities) {
+                int code = codeOf(facility.getName());
+                if (code < MASK_CAPACITY) {
+                    mask |= 1L << code;
+                }
+            }
+        }
+        return mask;
+    }
+
+    /**
+     * Checks whether a facility is stored in the bitmasks made by {@link #toMask(Collection)}
+     * @param name name of the facility
+     * @return true if the code of the facility is below {@link #MASK_CAPACITY}
+     */
+    public static boolean fitsInMask(String name) {
+        return codeOf(name) < MASK_CAPACITY;
+    }
+
+    private static synchronized HotelFacility register(String name) {
+        HotelFacility facility = facilities.get(name);
+        if (facility == null) {
+            facility = new HotelFacility(name);
+            codes.put(name, codes.size());
+            facilities.put(name, facility);
+        }
+        return facility;
+    }
+}
@@ -0,0 +1,55 @@
+package commons;
+
+import java.util.List;
+
+public class HotelBatch {
+    private List<Hotel> hotels;
+    private List<Long> missing;
+
+    /**
+     * Default constructor, for object mapper
+     */
+    public HotelBatch() {}
+
+    /**
+     * Constructs a HotelBatch object with the given parameters
+     * @param hotels the hotels that were found, in the requested order
+     * @param missing the requested ids for which no hotel exists
+     */
+    public HotelBatch(List<Hotel> hotels, List<Long> missing) {
+        this.hotels = hotels;
+        this.missing = missing;
+    }
+
+    /**
+     * Getter for the hotels that were found
+     * @return the hotels, in the requested order
+     */
+    public List<Hotel> getHotels() {
+        return hotels;
+    }
+
+    /**
+     * Setter for the hotels that were found
+     * @param hotels the hotels, in the requested order
+     */
+    public void setHotels(List<Hotel> hotels) {
+        this.hotels = hotels;
+    }
+
+    /**
+     * Getter for the requested ids for which no hotel exists
+     * @return the missing ids
+     */
+    public List<Long> getMissing() {
+        return missing;
+    }
+
+    /**
+     * Setter for the requested ids for which no hotel exists
+     * @param missing the missing ids
+     */
+    public void setMissing(List<Long> missing) {
+        this.missing = missing;
+    }
+}
@@ -1,12 +1,20 @@
 package commons;
 
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import com.fasterxml.jackson.databind.deser.std.StdDeserializer;
 import jakarta.persistence.Entity;
-import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.Id;
+import jakarta.persistence.PostLoad;
 
+import java.io.IOException;
 import java.util.Objects;
 
 @Entity
+@JsonDeserialize(using = HotelFacility.Deserializer.class)
 public class HotelFacility {
 
     @Id
@@ -43,6 +51,14 @@ public class HotelFacility {
     }
 
 
+    /**
+     * Replaces the name loaded from the database by the shared string from the {@link FacilityDictionary}
+     */
+    @PostLoad
+    void internName() {
+        name = FacilityDictionary.internName(name);
+    }
+
     /**
      * Method to test whether two objects are equal
      * @param o Object to compare 'this' to
@@ -75,4 +91,36 @@ public class HotelFacility {
                 "name='" + name + '\'' +
                 '}';
     }
+
+    /**
+     * Reads a facility either as its name or as {"name": ...} and returns the canonical instance
+     * from the {@link FacilityDictionary}, or a new instance for a name that was never stored
+     */
+    public static class Deserializer extends StdDeserializer<HotelFacility> {
+
+        /**
+         * Default constructor, for object mapper
+         */
+        public Deserializer() {
+            super(HotelFacility.class);
+        }
+
+        @Override
+        public HotelFacility deserialize(JsonParser parser, DeserializationContext context) throws IOException {
+            if (parser.currentToken() == JsonToken.VALUE_STRING) {
+                return lookup(parser.getText());
+            }
+            JsonNode node = parser.readValueAsTree();
+            JsonNode name = node.get("name");
+            if (name == null || !name.isTextual()) {
+                return (HotelFacility) context.handleUnexpectedToken(HotelFacility.class, parser);
+            }
+            return lookup(name.asText());
+        }
+
+        private static HotelFacility lookup(String name) {
+            HotelFacility facility = FacilityDictionary.find(name);
+            return facility != null ? facility : new HotelFacility(name);
+        }
+    }
 }
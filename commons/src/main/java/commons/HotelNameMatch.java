@@ -0,0 +1,61 @@
+package commons;
+
+public class HotelNameMatch {
+    private long id;
+    private String name;
+    private int distance;
+
+    /**
+     * Default constructor, for object mapper
+     */
+    public HotelNameMatch() {}
+
+    /**
+     * Constructs a HotelNameMatch object with the given parameters
+     * @param id id of the matching hotel
+     * @param name name of the matching hotel
+     * @param distance number of edits between the query and the name, 0 for exact and prefix matches
+     */
+    public HotelNameMatch(long id, String name, int distance) {
+        this.id = id;
+        this.name = name;
+        this.distance = distance;
+    }
+
+    /**
+     * Getter for the id of the matching hotel
+     * @return id of the matching hotel
+     */
+    public long getId() {
+        return id;
+    }
+
+    /**
+     * Getter for the name of the matching hotel
+     * @return name of the matching hotel
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Getter for the number of edits between the query and the name
+     * @return number of edits, 0 for exact and prefix matches
+     */
+    public int getDistance() {
+        return distance;
+    }
+
+    /**
+     * Method to get the string representation of the object
+     * @return string representation of the object
+     */
+    @Override
+    public String toString() {
+        return "HotelNameMatch{" +
+                "id=" + id +
+                ", name='" + name + '\'' +
+                ", distance=" + distance +
+                '}';
+    }
+}
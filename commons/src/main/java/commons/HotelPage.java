@@ -0,0 +1,55 @@
+package commons;
+
+import java.util.List;
+
+public class HotelPage {
+    private List<Hotel> hotels;
+    private Long next;
+
+    /**
+     * Default constructor, for object mapper
+     */
+    public HotelPage() {}
+
+    /**
+     * Constructs a HotelPage object with the given parameters
+     * @param hotels hotels on this page
+     * @param next cursor for the next page, null if this is the last page
+     */
+    public HotelPage(List<Hotel> hotels, Long next) {
+        this.hotels = hotels;
+        this.next = next;
+    }
+
+    /**
+     * Getter for the hotels on this page
+     * @return hotels on this page
+     */
+    public List<Hotel> getHotels() {
+        return hotels;
+    }
+
+    /**
+     * Setter for the hotels on this page
+     * @param hotels hotels on this page
+     */
+    public void setHotels(List<Hotel> hotels) {
+        this.hotels = hotels;
+    }
+
+    /**
+     * Getter for the cursor of the next page, to be passed as 'after'
+     * @return id of the last hotel on this page, null if there are no more pages
+     */
+    public Long getNext() {
+        return next;
+    }
+
+    /**
+     * Setter for the cursor of the next page
+     * @param next id of the last hotel on this page
+     */
+    public void setNext(Long next) {
+        this.next = next;
+    }
+}
@@ -0,0 +1,49 @@
+package commons;
+
+public class HotelPopularity {
+    private long hotelId;
+    private long wishListCount;
+
+    /**
+     * Default constructor, for object mapper
+     */
+    public HotelPopularity() {}
+
+    /**
+     * Constructs a HotelPopularity object with the given parameters
+     * @param hotelId id of the hotel
+     * @param wishListCount number of wishlists that contain the hotel
+     */
+    public HotelPopularity(long hotelId, long wishListCount) {
+        this.hotelId = hotelId;
+        this.wishListCount = wishListCount;
+    }
+
+    /**
+     * Getter for the id of the hotel
+     * @return id of the hotel
+     */
+    public long getHotelId() {
+        return hotelId;
+    }
+
+    /**
+     * Getter for the number of wishlists that contain the hotel
+     * @return number of wishlists
+     */
+    public long getWishListCount() {
+        return wishListCount;
+    }
+
+    /**
+     * Method to get the string representation of the object
+     * @return string representation of the object
+     */
+    @Override
+    public String toString() {
+        return "HotelPopularity{" +
+                "hotelId=" + hotelId +
+                ", wishListCount=" + wishListCount +
+                '}';
+    }
+}
@@ -0,0 +1,85 @@
+package commons;
+
+public class HotelRanking {
+    private long id;
+    private String name;
+    private int stars;
+    private long wishListCount;
+    private double score;
+
+    /**
+     * Default constructor, for object mapper
+     */
+    public HotelRanking() {}
+
+    /**
+     * Constructs a HotelRanking object with the given parameters
+     * @param id id of the hotel
+     * @param name name of the hotel
+     * @param stars number of stars of the hotel
+     * @param wishListCount number of wishlists that contain the hotel
+     * @param score weighted score of the hotel
+     */
+    public HotelRanking(long id, String name, int stars, long wishListCount, double score) {
+        this.id = id;
+        this.name = name;
+        this.stars = stars;
+        this.wishListCount = wishListCount;
+        this.score = score;
+    }
+
+    /**
+     * Getter for the id of the hotel
+     * @return id of the hotel
+     */
+    public long getId() {
+        return id;
+    }
+
+    /**
+     * Getter for the name of the hotel
+     * @return name of the hotel
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Getter for the number of stars of the hotel
+     * @return number of stars of the hotel
+     */
+    public int getStars() {
+        return stars;
+    }
+
+    /**
+     * Getter for the number of wishlists that contain the hotel
+     * @return number of wishlists that contain the hotel
+     */
+    public long getWishListCount() {
+        return wishListCount;
+    }
+
+    /**
+     * Getter for the weighted score of the hotel
+     * @return weighted score of the hotel
+     */
+    public double getScore() {
+        return score;
+    }
+
+    /**
+     * Method to get the string representation of the object
+     * @return string representation of the object
+     */
+    @Override
+    public String toString() {
+        return "HotelRanking{" +
+                "id=" + id +
+                ", name='" + name + '\'' +
+                ", stars=" + stars +
+                ", wishListCount=" + wishListCount +
+                ", score=" + score +
+                '}';
+    }
+}
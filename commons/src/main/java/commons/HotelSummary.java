@@ -0,0 +1,84 @@
+package commons;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import java.util.List;
+
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class HotelSummary {
+    private long id;
+    private String name;
+    private int stars;
+    private List<String> facilities;
+
+    /**
+     * Default constructor, for object mapper
+     */
+    public HotelSummary() {}
+
+    /**
+     * Constructs a HotelSummary object without facilities
+     * @param id id of the hotel
+     * @param name name of the hotel
+     * @param stars number of stars of the hotel
+     */
+    public HotelSummary(long id, String name, int stars) {
+        this.id = id;
+        this.name = name;
+        this.stars = stars;
+    }
+
+    /**
+     * Getter for the id of the hotel
+     * @return id of the hotel
+     */
+    public long getId() {
+        return id;
+    }
+
+    /**
+     * Getter for the name of the hotel
+     * @return name of the hotel
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Getter for the number of stars of the hotel
+     * @return number of stars of the hotel
+     */
+    public int getStars() {
+        return stars;
+    }
+
+    /**
+     * Getter for the facility names of the hotel
+     * @return facility names of the hotel, null if they were not requested
+     */
+    public List<String> getFacilities() {
+        return facilities;
+    }
+
+    /**
+     * Setter for the facility names of the hotel
+     * @param facilities facility names of the hotel
+     */
+    public void setFacilities(List<String> facilities) {
+        this.facilities = facilities;
+    }
+
+    /**
+     * Method to get the string representation of the object
+     * @return string representation of the object
+     */
+    @Override
+    public String toString() {
+        return "HotelSummary{" +
+                "id=" + id +
+                ", name='" + name + '\'' +
+                ", stars=" + stars +
+                ", facilities=" + facilities +
+                '}';
+    }
+}
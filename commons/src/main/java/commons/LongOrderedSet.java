@@ -0,0 +1,274 @@
+package commons;
+
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+import java.util.PrimitiveIterator;
+import java.util.function.LongConsumer;
+
+/**
+ * Set of primitive longs that remembers insertion order. Membership, adding and removing take constant time
+ * and no value is boxed. Entries live in parallel arrays linked in insertion order; an open addressing table
+ * with linear probing maps each value to its entry.
+ */
+public class LongOrderedSet {
+    private static final int EMPTY = -1;
+    private static final int DELETED = -2;
+    private static final int MIN_CAPACITY = 8;
+
+    private long[] values;
+    private int[] previous;
+    private int[] next;
+    private int[] table;
+    private int head = EMPTY;
+    private int tail = EMPTY;
+    private int size;
+    // entries below used have been handed out, removed entries are chained through next starting at free
+    private int used;
+    private int free = EMPTY;
+    private int deletedSlots;
+
+    /**
+     * Constructs an empty set
+     */
+    public LongOrderedSet() {
+        this(MIN_CAPACITY);
+    }
+
+    /**
+     * Constructs an empty set that holds the given number of values without growing
+     * @param expectedSize number of values the set should hold without growing
+     */
+    public LongOrderedSet(int expectedSize) {
+        int capacity = Math.max(MIN_CAPACITY, expectedSize);
+        values = new long[capacity];
+        previous = new int[capacity];
+        next = new int[capacity];
+        table = rehash(tableLength(capacity));
+    }
+
+    /**
+     * Getter for the number of values in the set
+     * @return number of values in the set
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Checks whether the set is empty
+     * @return true if the set holds no values
+     */
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Checks whether a value is in the set
+     * @param value the value
+     * @return true if the value is in the set
+     */
+    public boolean contains(long value) {
+        return table[findSlot(value)] >= 0;
+    }
+
+    /**
+     * Adds a value after the last value, unless it is already in the set
+     * @param value the value
+     * @return true if the value was added, false if it already was in the set
+     */
+    public boolean add(long value) {
+        int slot = findSlot(value);
+        if (table[slot] >= 0) {
+            return false;
+        }
+        if (used == values.length && free == EMPTY) {
+            grow();
+            slot = findSlot(value);
+        }
+        int entry;
+        if (free != EMPTY) {
+            entry = free;
+            free = next[entry];
+        } else {
+            entry = used++;
+        }
+        values[entry] = value;
+        previous[entry] = tail;
+        next[entry] = EMPTY;
+        if (tail == EMPTY) {
+            head = entry;
+        } else {
+            next[tail] = entry;
+        }
+        tail = entry;
+        if (table[slot] == DELETED) {
+            deletedSlots--;
+        }
+        table[slot] = entry;
+        size++;
+        if ((size + deletedSlots) * 2 > table.length) {
+            // only removed slots can fill the table this much, as it has twice as many slots as there are entries
+            table = rehash(table.length);
+        }
+        return true;
+    }
+
+    /**
+     * Removes a value, keeping the order of the other values
+     * @param value the value
+     * @return true if the value was in the set
+     */
+    public boolean remove(long value) {
+        int slot = findSlot(value);
+        int entry = table[slot];
+        if (entry < 0) {
+            return false;
+        }
+        table[slot] = DELETED;
+        deletedSlots++;
+        if (previous[entry] == EMPTY) {
+            head = next[entry];
+        } else {
+            next[previous[entry]] = next[entry];
+        }
+        if (next[entry] == EMPTY) {
+            tail = previous[entry];
+        } else {
+            previous[next[entry]] = previous[entry];
+        }
+        next[entry] = free;
+        free = entry;
+        size--;
+        return true;
+    }
+
+    /**
+     * Removes all values
+     */
+    public void clear() {
+        Arrays.fill(table, EMPTY);
+        head = EMPTY;
+        tail = EMPTY;
+        size = 0;
+        used = 0;
+        free = EMPTY;
+        deletedSlots = 0;
+    }
+
+    /**
+     * Runs an action for every value, in insertion order
+     * @param action the action
+     */
+    public void forEach(LongConsumer action) {
+        for (int entry = head; entry != EMPTY; entry = next[entry]) {
+            action.accept(values[entry]);
+        }
+    }
+
+    /**
+     * Iterates over the values in insertion order. The set must not be changed while iterating.
+     * @return iterator over the values
+     */
+    public PrimitiveIterator.OfLong iterator() {
+        return new PrimitiveIterator.OfLong() {
+            private int entry = head;
+
+            @Override
+            public boolean hasNext() {
+                return entry != EMPTY;
+            }
+
+            @Override
+            public long nextLong() {
+                if (entry == EMPTY) {
+                    throw new NoSuchElementException();
+                }
+                long value = values[entry];
+                entry = next[entry];
+                return value;
+            }
+        };
+    }
+
+    /**
+     * Copies the values to an array
+     * @return the values in insertion order
+     */
+    public long[] toArray() {
+        long[] result = new long[size];
+        int i = 0;
+        for (int entry = head; entry != EMPTY; entry = next[entry]) {
+            result[i++] = values[entry];
+        }
+        return result;
+    }
+
+    private int findSlot(long value) {
+        int mask = table.length - 1;
+        int slot = hash(value) & mask;
+        int firstDeleted = EMPTY;
+        while (true) {
+            int entry = table[slot];
+            if (entry == EMPTY) {
+                return firstDeleted != EMPTY ? firstDeleted : slot;
+            }
+            if (entry == DELETED) {
+                if (firstDeleted == EMPTY) {
+                    firstDeleted = slot;
+                }
+            } else if (values[entry] == value) {
+                return slot;
+            }
+            slot = (slot + 1) & mask;
+        }
+    }
+
+    private void grow() {
+        int capacity = values.length * 2;
+        values = Arrays.copyOf(values, capacity);
+        previous = Arrays.copyOf(previous, capacity);
+        next = Arrays.copyOf(next, capacity);
+        table = rehash(tableLength(capacity));
+    }
+
+    private int[] rehash(int tableLength) {
+        int[] rehashed = new int[tableLength];
+        Arrays.fill(rehashed, EMPTY);
+        int mask = tableLength - 1;
+        for (int entry = head; entry != EMPTY; entry = next[entry]) {
+            int slot = hash(values[entry]) & mask;
+            while (rehashed[slot] != EMPTY) {
+                slot = (slot + 1) & mask;
+            }
+            rehashed[slot] = entry;
+        }
+        deletedSlots = 0;
+        return rehashed;
+    }
+
+    private static int tableLength(int capacity) {
+        // a power of two with at least two slots per entry
+        return Integer.highestOneBit(capacity * 2 - 1) << 1;
+    }
+
+    private static int hash(long value) {
+        long h = value * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32));
+    }
+
+    /**
+     * Method to get the string representation of the object
+     * @return string representation of the object
+     */
+    @Override
+    public String toString() {
+        StringBuilder builder = new StringBuilder("[");
+        for (int entry = head; entry != EMPTY; entry = next[entry]) {
+            if (entry != head) {
+                builder.append(", ");
+            }
+            builder.append(values[entry]);
+        }
+        return builder.append(']').toString();
+    }
+}
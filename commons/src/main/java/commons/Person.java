@@ -16,6 +16,13 @@ public class Person {
     @OneToMany(mappedBy = "owner",  fetch = FetchType.EAGER, orphanRemoval = true, cascade = CascadeType.PERSIST)
     private List<WishList> wishLists;
 
+    @Version
+    @Column(columnDefinition = "bigint default 0 not null")
+    private long version;
+    // sequence of the last logged change of the wishlists, only written with SQL so saving the person keeps it
+    @Column(name = "change_sequence", columnDefinition = "bigint default 0 not null", insertable = false, updatable = false)
+    private long changeSequence;
+
     /**
      * Default constructor, for object mapper
      */
@@ -48,6 +55,22 @@ public class Person {
         wishLists.remove(wishList);
     }
 
+    /**
+     * Getter for the version of the person, increased on every change
+     * @return version of the person
+     */
+    public long getVersion() {
+        return version;
+    }
+
+    /**
+     * Getter for the sequence of the last logged change of the wishlists of the person
+     * @return the change sequence
+     */
+    public long getChangeSequence() {
+        return changeSequence;
+    }
+
     /**
      * Getter for the id of the person
      * @return id of the person
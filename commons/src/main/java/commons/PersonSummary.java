@@ -0,0 +1,51 @@
+package commons;
+
+import java.util.List;
+
+public class PersonSummary {
+    private String username;
+    private List<WishListSummary> wishLists;
+
+    /**
+     * Default constructor, for object mapper
+     */
+    public PersonSummary() {}
+
+    /**
+     * Constructs a PersonSummary object with the given parameters
+     * @param username username of the person
+     * @param wishLists summaries of the wishlists of the person
+     */
+    public PersonSummary(String username, List<WishListSummary> wishLists) {
+        this.username = username;
+        this.wishLists = wishLists;
+    }
+
+    /**
+     * Getter for the username of the person
+     * @return username of the person
+     */
+    public String getUsername() {
+        return username;
+    }
+
+    /**
+     * Getter for the summaries of the wishlists of the person
+     * @return summaries of the wishlists of the person
+     */
+    public List<WishListSummary> getWishLists() {
+        return wishLists;
+    }
+
+    /**
+     * Method to get the string representation of the object
+     * @return string representation of the object
+     */
+    @Override
+    public String toString() {
+        return "PersonSummary{" +
+                "username='" + username + '\'' +
+                ", wishLists=" + wishLists +
+                '}';
+    }
+}
@@ -0,0 +1,71 @@
+package commons;
+
+import java.security.SecureRandom;
+import java.util.Base64;
+
+/**
+ * Sharing codes of wishlists. A code is a random key of {@value #KEY_LENGTH} bytes, stored as fixed-width
+ * binary and shown as {@value #CODE_LENGTH} characters of URL-safe base64. Wishlists created before these keys
+ * keep their UUID codes.
+ */
+public final class SharingCodes {
+    /**
+     * Length of a sharing key in bytes
+     */
+    public static final int KEY_LENGTH = 12;
+    /**
+     * Length of the text form of a sharing key
+     */
+    public static final int CODE_LENGTH = 16;
+
+    private static final SecureRandom random = new SecureRandom();
+    private static final Base64.Encoder encoder = Base64.getUrlEncoder().withoutPadding();
+    private static final Base64.Decoder decoder = Base64.getUrlDecoder();
+
+    private SharingCodes() {}
+
+    /**
+     * Creates a new random sharing key
+     * @return the key
+     */
+    public static byte[] newKey() {
+        byte[] key = new byte[KEY_LENGTH];
+        random.nextBytes(key);
+        return key;
+    }
+
+    /**
+     * Gets the text form of a sharing key
+     * @param key the key
+     * @return the sharing code
+     */
+    public static String encode(byte[] key) {
+        return encoder.encodeToString(key);
+    }
+
+    /**
+     * Gets the sharing key of a sharing code
+     * @param code the sharing code
+     * @return the key, null if the code is not the text form of a key, like the UUID codes of older wishlists
+     */
+    public static byte[] decode(String code) {
+        if (code == null || code.length() != CODE_LENGTH) {
+            return null;
+        }
+        try {
+            return decoder.decode(code);
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Gets the sharing code of a wishlist from its stored columns
+     * @param key the sharing key, null for older wishlists
+     * @param legacyCode the UUID code of older wishlists
+     * @return the sharing code
+     */
+    public static String codeOf(byte[] key, String legacyCode) {
+        return key != null ? encode(key) : legacyCode;
+    }
+}
@@ -1,18 +1,20 @@
 package commons;
 
 import com.fasterxml.jackson.annotation.JsonBackReference;
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.*;
 
 import java.util.*;
 
 @Entity
+@Table(uniqueConstraints = @UniqueConstraint(name = "uk_wish_list_owner_name", columnNames = {"owner_username", "name"}))
 public class WishList {
     @Id
     @GeneratedValue(strategy = GenerationType.AUTO)
     private long id;
     private String name;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JsonBackReference
     @JoinColumn(name = "owner_username")
     private Person owner;
@@ -20,10 +22,25 @@ public class WishList {
     @JoinTable(
             name = "wishlist_hotel",
             joinColumns = @JoinColumn(name = "wishlist_id"),
-            inverseJoinColumns = @JoinColumn(name = "hotel_id")
+            inverseJoinColumns = @JoinColumn(name = "hotel_id"),
+            uniqueConstraints = @UniqueConstraint(name = "uk_wishlist_hotel", columnNames = {"wishlist_id", "hotel_id"})
     )
+    @OrderColumn(name = "position_index")
     private List<Hotel> hotels;
+    // ids of the hotels, for membership checks without comparing hotels; rebuilt when hotels is replaced
+    @Transient
+    private LongOrderedSet hotelIds;
+    @Transient
+    private List<Hotel> indexedHotels;
+    // UUID code of wishlists created before sharing keys, also the code received by clients
+    @Column(unique = true)
     private String sharingCode;
+    @JsonIgnore
+    @Column(unique = true, columnDefinition = "binary(12)")
+    private byte[] sharingKey;
+    @Version
+    @Column(columnDefinition = "bigint default 0 not null")
+    private long version;
 
     /**
      * Default constructor, for object mapper
@@ -56,19 +73,57 @@ public class WishList {
     /**
      * Adds a hotel to the wishlist
      * @param hotel hotel to add
+     * @return true if the hotel was added, false if it was already in the wishlist
      */
-    public void addHotel(Hotel hotel) {
-        if(!hotels.contains(hotel)) {
-            hotels.add(hotel);
+    public boolean addHotel(Hotel hotel) {
+        if(hotelIds().add(hotel.getId())) {
+            return hotels.add(hotel);
         }
+        return false;
     }
 
     /**
-     * Removes a hotel from the wishlist
+     * Removes a hotel from the wishlist. The membership check takes constant time, but removing takes time
+     * linear in the size of the wishlist, as the hotels are kept in order in a list.
      * @param hotel hotel to remove
+     * @return true if the hotel was in the wishlist
+     */
+    public boolean removeHotel(Hotel hotel) {
+        if(hotelIds().remove(hotel.getId())) {
+            for (int i = 0; i < hotels.size(); i++) {
+                if (hotels.get(i).getId() == hotel.getId()) {
+                    hotels.remove(i);
+                    break;
+                }
+            }
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Checks whether a hotel is in the wishlist
+     * @param hotelId id of the hotel
+     * @return true if the hotel is in the wishlist
+     */
+    public boolean containsHotel(long hotelId) {
+        return hotelIds().contains(hotelId);
+    }
+
+    /**
+     * Getter for the ids of the hotels in the wishlist, built once from the hotels and kept up to date
+     * by addHotel and removeHotel
+     * @return ids of the hotels, in the order of the wishlist
      */
-    public void removeHotel(Hotel hotel) {
-        hotels.remove(hotel);
+    private LongOrderedSet hotelIds() {
+        if (hotelIds == null || indexedHotels != hotels) {
+            hotelIds = new LongOrderedSet(hotels.size());
+            for (Hotel hotel : hotels) {
+                hotelIds.add(hotel.getId());
+            }
+            indexedHotels = hotels;
+        }
+        return hotelIds;
     }
 
 
@@ -130,26 +185,27 @@ public class WishList {
     }
 
     /**
-     * Setter for the sharing code of the wishlist
+     * Getter for the sharing code of the wishlist
      * @return sharing code of the wishlist
      */
     public String getSharingCode() {
-        return sharingCode;
+        return SharingCodes.codeOf(sharingKey, sharingCode);
     }
 
     /**
-     * Setter for the sharing code of the wishlist
+     * Setter for the sharing code of the wishlist, gives it a new random sharing key
      */
     public void setSharingCode() {
-        this.sharingCode = createSharingCode();
+        this.sharingKey = SharingCodes.newKey();
+        this.sharingCode = null;
     }
 
     /**
-     * Method to create a sharing code for the wishlist
-     * @return sharing code
+     * Getter for the version of the wishlist, increased on every change
+     * @return version of the wishlist
      */
-    private String createSharingCode() {
-        return UUID.randomUUID().toString();
+    public long getVersion() {
+        return version;
     }
 
     /**
@@ -0,0 +1,164 @@
+package commons;
+
+/**
+ * One entry of the change log of the wishlists of a person. Replaying the entries after a sync sequence, in order,
+ * brings a copy of the wishlists up to date.
+ */
+public class WishListChange {
+
+    public enum Type { CREATED, RENAMED, DELETED, HOTEL_ADDED, HOTEL_REMOVED, HOTEL_MOVED }
+
+    private long sequence;
+    private long wishListId;
+    private Type type;
+    private Long hotelId;
+    private Integer position;
+    private String name;
+
+    /**
+     * Default constructor, for object mapper
+     */
+    public WishListChange() {}
+
+    /**
+     * Constructs a WishListChange object with the given parameters
+     * @param sequence position of the change in the change log of the person, 0 before it is logged
+     * @param wishListId id of the changed wishlist
+     * @param type what changed
+     * @param hotelId id of the added, removed or moved hotel, null for other changes
+     * @param position new position of a moved hotel, starting at 0, null for other changes
+     * @param name name of a created or renamed wishlist, null for other changes
+     */
+    public WishListChange(long sequence, long wishListId, Type type, Long hotelId, Integer position, String name) {
+        this.sequence = sequence;
+        this.wishListId = wishListId;
+        this.type = type;
+        this.hotelId = hotelId;
+        this.position = position;
+        this.name = name;
+    }
+
+    /**
+     * Creates the change for a created wishlist
+     * @param wishListId id of the wishlist
+     * @param name name of the wishlist
+     * @return the change
+     */
+    public static WishListChange created(long wishListId, String name) {
+        return new WishListChange(0, wishListId, Type.CREATED, null, null, name);
+    }
+
+    /**
+     * Creates the change for a renamed wishlist
+     * @param wishListId id of the wishlist
+     * @param name new name of the wishlist
+     * @return the change
+     */
+    public static WishListChange renamed(long wishListId, String name) {
+        return new WishListChange(0, wishListId, Type.RENAMED, null, null, name);
+    }
+
+    /**
+     * Creates the change for a deleted wishlist
+     * @param wishListId id of the wishlist
+     * @return the change
+     */
+    public static WishListChange deleted(long wishListId) {
+        return new WishListChange(0, wishListId, Type.DELETED, null, null, null);
+    }
+
+    /**
+     * Creates the change for a hotel added to the end of a wishlist
+     * @param wishListId id of the wishlist
+     * @param hotelId id of the hotel
+     * @return the change
+     */
+    public static WishListChange hotelAdded(long wishListId, long hotelId) {
+        return new WishListChange(0, wishListId, Type.HOTEL_ADDED, hotelId, null, null);
+    }
+
+    /**
+     * Creates the change for a hotel removed from a wishlist
+     * @param wishListId id of the wishlist
+     * @param hotelId id of the hotel
+     * @return the change
+     */
+    public static WishListChange hotelRemoved(long wishListId, long hotelId) {
+        return new WishListChange(0, wishListId, Type.HOTEL_REMOVED, hotelId, null, null);
+    }
+
+    /**
+     * Creates the change for a hotel moved to another position in a wishlist
+     * @param wishListId id of the wishlist
+     * @param hotelId id of the hotel
+     * @param position new position of the hotel, starting at 0
+     * @return the change
+     */
+    public static WishListChange hotelMoved(long wishListId, long hotelId, int position) {
+        return new WishListChange(0, wishListId, Type.HOTEL_MOVED, hotelId, position, null);
+    }
+
+    /**
+     * Getter for the position of the change in the change log of the person
+     * @return the sequence number of the change
+     */
+    public long getSequence() {
+        return sequence;
+    }
+
+    /**
+     * Getter for the id of the changed wishlist
+     * @return id of the changed wishlist
+     */
+    public long getWishListId() {
+        return wishListId;
+    }
+
+    /**
+     * Getter for what changed
+     * @return type of the change
+     */
+    public Type getType() {
+        return type;
+    }
+
+    /**
+     * Getter for the id of the added, removed or moved hotel
+     * @return id of the hotel, null for other changes
+     */
+    public Long getHotelId() {
+        return hotelId;
+    }
+
+    /**
+     * Getter for the new position of a moved hotel
+     * @return the position, starting at 0, null for other changes
+     */
+    public Integer getPosition() {
+        return position;
+    }
+
+    /**
+     * Getter for the name of a created or renamed wishlist
+     * @return the name, null for other changes
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Method to get the string representation of the object
+     * @return string representation of the object
+     */
+    @Override
+    public String toString() {
+        return "WishListChange{" +
+                "sequence=" + sequence +
+                ", wishListId=" + wishListId +
+                ", type=" + type +
+                ", hotelId=" + hotelId +
+                ", position=" + position +
+                ", name='" + name + '\'' +
+                '}';
+    }
+}
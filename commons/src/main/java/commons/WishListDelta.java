@@ -0,0 +1,76 @@
+package commons;
+
+public class WishListDelta {
+
+    public enum Action { ADDED, REMOVED }
+
+    private String wishListName;
+    private Action action;
+    private long hotelId;
+    private boolean changed;
+
+    /**
+     * Default constructor, for object mapper
+     */
+    public WishListDelta() {}
+
+    /**
+     * Constructs a WishListDelta object with the given parameters
+     * @param wishListName name of the changed wishlist
+     * @param action whether the hotel was added or removed
+     * @param hotelId id of the hotel
+     * @param changed false if the wishlist already was in the requested state
+     */
+    public WishListDelta(String wishListName, Action action, long hotelId, boolean changed) {
+        this.wishListName = wishListName;
+        this.action = action;
+        this.hotelId = hotelId;
+        this.changed = changed;
+    }
+
+    /**
+     * Getter for the name of the changed wishlist
+     * @return name of the changed wishlist
+     */
+    public String getWishListName() {
+        return wishListName;
+    }
+
+    /**
+     * Getter for the action applied to the wishlist
+     * @return whether the hotel was added or removed
+     */
+    public Action getAction() {
+        return action;
+    }
+
+    /**
+     * Getter for the id of the hotel
+     * @return id of the hotel
+     */
+    public long getHotelId() {
+        return hotelId;
+    }
+
+    /**
+     * Getter for whether the wishlist changed
+     * @return false if the wishlist already was in the requested state
+     */
+    public boolean isChanged() {
+        return changed;
+    }
+
+    /**
+     * Method to get the string representation of the object
+     * @return string representation of the object
+     */
+    @Override
+    public String toString() {
+        return "WishListDelta{" +
+                "wishListName='" + wishListName + '\'' +
+                ", action=" + action +
+                ", hotelId=" + hotelId +
+                ", changed=" + changed +
+                '}';
+    }
+}
@@ -0,0 +1,142 @@
+package commons;
+
+import java.util.List;
+
+/**
+ * A change of a wishlist, pushed to the clients that watch the wishlist
+ */
+public class WishListEvent {
+
+    public enum Type { HOTEL_ADDED, HOTEL_REMOVED, REORDERED, RENAMED, DELETED }
+
+    private long wishListId;
+    private Type type;
+    private Long hotelId;
+    private String name;
+    private List<Long> hotelIds;
+
+    /**
+     * Default constructor, for object mapper
+     */
+    public WishListEvent() {}
+
+    /**
+     * Constructs a WishListEvent object with the given parameters
+     * @param wishListId id of the changed wishlist
+     * @param type what changed
+     * @param hotelId id of the added or removed hotel, null for other changes
+     * @param name new name of a renamed wishlist, null for other changes
+     * @param hotelIds ids of the hotels in their new order after a reorder, null for other changes
+     */
+    public WishListEvent(long wishListId, Type type, Long hotelId, String name, List<Long> hotelIds) {
+        this.wishListId = wishListId;
+        this.type = type;
+        this.hotelId = hotelId;
+        this.name = name;
+        this.hotelIds = hotelIds;
+    }
+
+    /**
+     * Creates the event for a hotel added to a wishlist
+     * @param wishListId id of the wishlist
+     * @param hotelId id of the hotel
+     * @return the event
+     */
+    public static WishListEvent hotelAdded(long wishListId, long hotelId) {
+        return new WishListEvent(wishListId, Type.HOTEL_ADDED, hotelId, null, null);
+    }
+
+    /**
+     * Creates the event for a hotel removed from a wishlist
+     * @param wishListId id of the wishlist
+     * @param hotelId id of the hotel
+     * @return the event
+     */
+    public static WishListEvent hotelRemoved(long wishListId, long hotelId) {
+        return new WishListEvent(wishListId, Type.HOTEL_REMOVED, hotelId, null, null);
+    }
+
+    /**
+     * Creates the event for hotels of a wishlist that were moved
+     * @param wishListId id of the wishlist
+     * @param hotelIds ids of all hotels of the wishlist in their new order
+     * @return the event
+     */
+    public static WishListEvent reordered(long wishListId, List<Long> hotelIds) {
+        return new WishListEvent(wishListId, Type.REORDERED, null, null, hotelIds);
+    }
+
+    /**
+     * Creates the event for a renamed wishlist
+     * @param wishListId id of the wishlist
+     * @param name new name of the wishlist
+     * @return the event
+     */
+    public static WishListEvent renamed(long wishListId, String name) {
+        return new WishListEvent(wishListId, Type.RENAMED, null, name, null);
+    }
+
+    /**
+     * Creates the event for a deleted wishlist
+     * @param wishListId id of the wishlist
+     * @return the event
+     */
+    public static WishListEvent deleted(long wishListId) {
+        return new WishListEvent(wishListId, Type.DELETED, null, null, null);
+    }
+
+    /**
+     * Getter for the id of the changed wishlist
+     * @return id of the changed wishlist
+     */
+    public long getWishListId() {
+        return wishListId;
+    }
+
+    /**
+     * Getter for what changed
+     * @return type of the change
+     */
+    public Type getType() {
+        return type;
+    }
+
+    /**
+     * Getter for the id of the added or removed hotel
+     * @return id of the hotel, null for other changes
+     */
+    public Long getHotelId() {
+        return hotelId;
+    }
+
+    /**
+     * Getter for the new name of a renamed wishlist
+     * @return the new name, null for other changes
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Getter for the order of the hotels after a reorder
+     * @return ids of the hotels in their new order, null for other changes
+     */
+    public List<Long> getHotelIds() {
+        return hotelIds;
+    }
+
+    /**
+     * Method to get the string representation of the object
+     * @return string representation of the object
+     */
+    @Override
+    public String toString() {
+        return "WishListEvent{" +
+                "wishListId=" + wishListId +
+                ", type=" + type +
+                ", hotelId=" + hotelId +
+                ", name='" + name + '\'' +
+                ", hotelIds=" + hotelIds +
+                '}';
+    }
+}
@@ -0,0 +1,129 @@
+package commons;
+
+public class WishListOperation {
+
+    public enum Type { ADD, REMOVE, REORDER, RENAME }
+
+    private Type type;
+    private String wishListName;
+    private Long hotelId;
+    private Integer position;
+    private String newName;
+
+    /**
+     * Default constructor, for object mapper
+     */
+    public WishListOperation() {}
+
+    /**
+     * Constructs a WishListOperation object with the given parameters
+     * @param type type of the operation
+     * @param wishListName name of the wishlist to change, as it is when the operation runs
+     * @param hotelId id of the hotel to add, remove or move, null for a rename
+     * @param position new position of the hotel for a reorder, null otherwise
+     * @param newName new name of the wishlist for a rename, null otherwise
+     */
+    public WishListOperation(Type type, String wishListName, Long hotelId, Integer position, String newName) {
+        this.type = type;
+        this.wishListName = wishListName;
+        this.hotelId = hotelId;
+        this.position = position;
+        this.newName = newName;
+    }
+
+    /**
+     * Creates an operation that adds a hotel to the end of a wishlist
+     * @param wishListName name of the wishlist
+     * @param hotelId id of the hotel
+     * @return the operation
+     */
+    public static WishListOperation add(String wishListName, long hotelId) {
+        return new WishListOperation(Type.ADD, wishListName, hotelId, null, null);
+    }
+
+    /**
+     * Creates an operation that removes a hotel from a wishlist
+     * @param wishListName name of the wishlist
+     * @param hotelId id of the hotel
+     * @return the operation
+     */
+    public static WishListOperation remove(String wishListName, long hotelId) {
+        return new WishListOperation(Type.REMOVE, wishListName, hotelId, null, null);
+    }
+
+    /**
+     * Creates an operation that moves a hotel to another position in a wishlist
+     * @param wishListName name of the wishlist
+     * @param hotelId id of the hotel
+     * @param position new position of the hotel, starting at 0
+     * @return the operation
+     */
+    public static WishListOperation reorder(String wishListName, long hotelId, int position) {
+        return new WishListOperation(Type.REORDER, wishListName, hotelId, position, null);
+    }
+
+    /**
+     * Creates an operation that renames a wishlist
+     * @param wishListName current name of the wishlist
+     * @param newName new name of the wishlist
+     * @return the operation
+     */
+    public static WishListOperation rename(String wishListName, String newName) {
+        return new WishListOperation(Type.RENAME, wishListName, null, null, newName);
+    }
+
+    /**
+     * Getter for the type of the operation
+     * @return type of the operation
+     */
+    public Type getType() {
+        return type;
+    }
+
+    /**
+     * Getter for the name of the wishlist to change
+     * @return name of the wishlist to change
+     */
+    public String getWishListName() {
+        return wishListName;
+    }
+
+    /**
+     * Getter for the id of the hotel
+     * @return id of the hotel, null for a rename
+     */
+    public Long getHotelId() {
+        return hotelId;
+    }
+
+    /**
+     * Getter for the new position of the hotel
+     * @return new position of the hotel, null if this is not a reorder
+     */
+    public Integer getPosition() {
+        return position;
+    }
+
+    /**
+     * Getter for the new name of the wishlist
+     * @return new name of the wishlist, null if this is not a rename
+     */
+    public String getNewName() {
+        return newName;
+    }
+
+    /**
+     * Method to get the string representation of the object
+     * @return string representation of the object
+     */
+    @Override
+    public String toString() {
+        return "WishListOperation{" +
+                "type=" + type +
+                ", wishListName='" + wishListName + '\'' +
+                ", hotelId=" + hotelId +
+                ", position=" + position +
+                ", newName='" + newName + '\'' +
+                '}';
+    }
+}
@@ -0,0 +1,64 @@
+package commons;
+
+public class WishListOperationResult {
+
+    public enum Status { APPLIED, UNCHANGED, NOT_FOUND, INVALID }
+
+    private int index;
+    private WishListOperation.Type type;
+    private Status status;
+
+    /**
+     * Default constructor, for object mapper
+     */
+    public WishListOperationResult() {}
+
+    /**
+     * Constructs a WishListOperationResult object with the given parameters
+     * @param index position of the operation in the batch
+     * @param type type of the operation
+     * @param status outcome of the operation
+     */
+    public WishListOperationResult(int index, WishListOperation.Type type, Status status) {
+        this.index = index;
+        this.type = type;
+        this.status = status;
+    }
+
+    /**
+     * Getter for the position of the operation in the batch
+     * @return position of the operation in the batch
+     */
+    public int getIndex() {
+        return index;
+    }
+
+    /**
+     * Getter for the type of the operation
+     * @return type of the operation
+     */
+    public WishListOperation.Type getType() {
+        return type;
+    }
+
+    /**
+     * Getter for the outcome of the operation
+     * @return outcome of the operation
+     */
+    public Status getStatus() {
+        return status;
+    }
+
+    /**
+     * Method to get the string representation of the object
+     * @return string representation of the object
+     */
+    @Override
+    public String toString() {
+        return "WishListOperationResult{" +
+                "index=" + index +
+                ", type=" + type +
+                ", status=" + status +
+                '}';
+    }
+}
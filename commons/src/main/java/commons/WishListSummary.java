@@ -0,0 +1,71 @@
+package commons;
+
+public class WishListSummary {
+    private String name;
+    private String sharingCode;
+    private int hotelCount;
+
+    /**
+     * Default constructor, for object mapper
+     */
+    public WishListSummary() {}
+
+    /**
+     * Constructs a WishListSummary object with the given parameters
+     * @param name name of the wishlist
+     * @param sharingCode sharing code of the wishlist
+     * @param hotelCount number of hotels in the wishlist
+     */
+    public WishListSummary(String name, String sharingCode, int hotelCount) {
+        this.name = name;
+        this.sharingCode = sharingCode;
+        this.hotelCount = hotelCount;
+    }
+
+    /**
+     * Constructs a WishListSummary object from the stored columns of a wishlist
+     * @param name name of the wishlist
+     * @param legacySharingCode UUID sharing code of wishlists created before sharing keys
+     * @param sharingKey sharing key of the wishlist, null for older wishlists
+     * @param hotelCount number of hotels in the wishlist
+     */
+    public WishListSummary(String name, String legacySharingCode, byte[] sharingKey, int hotelCount) {
+        this(name, SharingCodes.codeOf(sharingKey, legacySharingCode), hotelCount);
+    }
+
+    /**
+     * Getter for the name of the wishlist
+     * @return name of the wishlist
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Getter for the sharing code of the wishlist
+     * @return sharing code of the wishlist
+     */
+    public String getSharingCode() {
+        return sharingCode;
+    }
+
+    /**
+     * Getter for the number of hotels in the wishlist
+     * @return number of hotels in the wishlist
+     */
+    public int getHotelCount() {
+        return hotelCount;
+    }
+
+    /**
+     * Method to get the string representation of the object
+     * @return string representation of the object
+     */
+    @Override
+    public String toString() {
+        return "WishListSummary{" +
+                "name='" + name + '\'' +
+                ", hotelCount=" + hotelCount +
+                '}';
+    }
+}
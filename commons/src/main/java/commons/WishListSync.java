@@ -0,0 +1,85 @@
+package commons;
+
+import java.util.List;
+
+/**
+ * Answer to a sync of the wishlists of a person: the changes since the sequence the client last saw, or all
+ * wishlists when those changes are no longer all logged
+ */
+public class WishListSync {
+    private long sequence;
+    private boolean snapshot;
+    private List<WishListChange> changes;
+    private List<WishList> wishLists;
+
+    /**
+     * Default constructor, for object mapper
+     */
+    public WishListSync() {}
+
+    /**
+     * Constructs a WishListSync object with the given parameters
+     * @param sequence sequence of the last change included, to pass to the next sync
+     * @param snapshot true if the answer holds all wishlists instead of changes
+     * @param changes the changes in order, null for a snapshot
+     * @param wishLists all wishlists of the person, null for changes
+     */
+    public WishListSync(long sequence, boolean snapshot, List<WishListChange> changes, List<WishList> wishLists) {
+        this.sequence = sequence;
+        this.snapshot = snapshot;
+        this.changes = changes;
+        this.wishLists = wishLists;
+    }
+
+    /**
+     * Creates a sync answer with the changes since the last sync
+     * @param sequence sequence of the last change
+     * @param changes the changes in order
+     * @return the sync answer
+     */
+    public static WishListSync ofChanges(long sequence, List<WishListChange> changes) {
+        return new WishListSync(sequence, false, changes, null);
+    }
+
+    /**
+     * Creates a sync answer with all wishlists
+     * @param sequence sequence of the last change included in the wishlists
+     * @param wishLists all wishlists of the person
+     * @return the sync answer
+     */
+    public static WishListSync ofSnapshot(long sequence, List<WishList> wishLists) {
+        return new WishListSync(sequence, true, null, wishLists);
+    }
+
+    /**
+     * Getter for the sequence of the last change included, to pass to the next sync
+     * @return the sequence
+     */
+    public long getSequence() {
+        return sequence;
+    }
+
+    /**
+     * Getter for whether the answer holds all wishlists instead of changes
+     * @return true for a snapshot
+     */
+    public boolean isSnapshot() {
+        return snapshot;
+    }
+
+    /**
+     * Getter for the changes since the last sync
+     * @return the changes in order, null for a snapshot
+     */
+    public List<WishListChange> getChanges() {
+        return changes;
+    }
+
+    /**
+     * Getter for all wishlists of the person
+     * @return the wishlists, null unless this is a snapshot
+     */
+    public List<WishList> getWishLists() {
+        return wishLists;
+    }
+}
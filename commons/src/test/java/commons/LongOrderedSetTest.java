@@ -0,0 +1,63 @@
+package commons;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.LinkedHashSet;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class LongOrderedSetTest {
+
+    @Test
+    void keepsInsertionOrderAcrossRemoves() {
+        LongOrderedSet set = new LongOrderedSet();
+        assertTrue(set.add(3));
+        assertTrue(set.add(1));
+        assertTrue(set.add(2));
+        assertFalse(set.add(1));
+        assertTrue(set.remove(1));
+        assertFalse(set.remove(1));
+        assertTrue(set.add(1));
+
+        assertArrayEquals(new long[] {3, 2, 1}, set.toArray());
+        assertEquals(3, set.size());
+        assertEquals("[3, 2, 1]", set.toString());
+    }
+
+    @Test
+    void matchesLinkedHashSetUnderRandomChanges() {
+        LongOrderedSet set = new LongOrderedSet();
+        Set<Long> expected = new LinkedHashSet<>();
+        Random random = new Random(42);
+        for (int i = 0; i < 100_000; i++) {
+            long value = random.nextInt(1000);
+            if (random.nextBoolean()) {
+                assertEquals(expected.add(value), set.add(value));
+            } else {
+                assertEquals(expected.remove(value), set.remove(value));
+            }
+            assertEquals(expected.contains(value), set.contains(value));
+        }
+        assertArrayEquals(expected.stream().mapToLong(Long::longValue).toArray(), set.toArray());
+        assertEquals(expected.size(), set.size());
+    }
+
+    @Test
+    void isEmptyAfterClear() {
+        LongOrderedSet set = new LongOrderedSet(2);
+        for (long value = 0; value < 100; value++) {
+            set.add(value);
+        }
+        set.clear();
+
+        assertTrue(set.isEmpty());
+        assertFalse(set.contains(5));
+        assertTrue(set.add(5));
+        assertArrayEquals(new long[] {5}, set.toArray());
+    }
+}
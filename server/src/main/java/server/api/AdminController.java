@@ -0,0 +1,41 @@
+package server.api;
+
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.multipart.MultipartFile;
+import server.services.HotelImportService;
+import server.services.HotelService;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+@RestController
+@RequestMapping("api/admin")
+public class AdminController {
+
+    HotelService hotelService;
+
+    /**
+     * Constructor for AdminController
+     * @param hotelService the hotel service
+     */
+    public AdminController(HotelService hotelService) {
+        this.hotelService = hotelService;
+    }
+
+    /**
+     * Post mapping for /api/admin/hotels/import to import hotels from an uploaded JSON file.
+     * Hotels are matched by id, existing hotels are overwritten.
+     * @param file the uploaded file, either {"hotels": [...]} or a bare array of hotels
+     * @return the counters of the import
+     */
+    @PostMapping(value = "/hotels/import", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    public ResponseEntity<HotelImportService.Result> importHotels(@RequestParam("file") MultipartFile file) {
+        try (InputStream inputStream = file.getInputStream()) {
+            return ResponseEntity.ok(hotelService.importHotels(inputStream));
+        } catch (IOException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+}
@@ -1,46 +1,375 @@
 package server.api;
 
 import commons.Hotel;
+import commons.HotelBatch;
+import commons.HotelFacility;
+import commons.HotelNameMatch;
+import commons.HotelPage;
+import commons.HotelPopularity;
+import commons.HotelRanking;
+import commons.HotelSummary;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
-import server.database.HotelFacilityRepository;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import server.database.HotelRepository;
+import server.services.BoundedCache;
+import server.services.CatalogResponseCache;
+import server.services.ContentVersions;
+import server.services.HotelFacilityIndex;
+import server.services.HotelLeaderboard;
+import server.services.HotelNameIndex;
+import server.services.HotelPopularityCounters;
+import server.services.HotelService;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 @RestController
 @RequestMapping("api/hotel")
 public class HotelController {
 
+    static final int MAX_PAGE_SIZE = 1000;
+    static final int MAX_BATCH_SIZE = 10000;
+
     HotelRepository hotelRepository;
+    HotelService hotelService;
+    HotelFacilityIndex hotelFacilityIndex;
+    HotelNameIndex hotelNameIndex;
+    HotelLeaderboard hotelLeaderboard;
+    HotelPopularityCounters hotelPopularityCounters;
+    ContentVersions contentVersions;
+    CatalogResponseCache catalogResponseCache;
 
     /**
      * Constructor for HotelController
      * @param hotelRepository the hotel repository
+     * @param hotelService the hotel service
+     * @param hotelFacilityIndex the facility and stars index
+     * @param hotelNameIndex the hotel name index
+     * @param hotelLeaderboard the hotel rankings
+     * @param hotelPopularityCounters the number of wishlists that contain each hotel
+     * @param contentVersions the version counters used for ETags
+     * @param catalogResponseCache the cache of serialized hotel listings
      */
-    public HotelController(HotelRepository hotelRepository) {
+    public HotelController(HotelRepository hotelRepository, HotelService hotelService,
+                           HotelFacilityIndex hotelFacilityIndex, HotelNameIndex hotelNameIndex,
+                           HotelLeaderboard hotelLeaderboard, HotelPopularityCounters hotelPopularityCounters,
+                           ContentVersions contentVersions, CatalogResponseCache catalogResponseCache) {
         this.hotelRepository = hotelRepository;
+        this.hotelService = hotelService;
+        this.hotelFacilityIndex = hotelFacilityIndex;
+        this.hotelNameIndex = hotelNameIndex;
+        this.hotelLeaderboard = hotelLeaderboard;
+        this.hotelPopularityCounters = hotelPopularityCounters;
+        this.contentVersions = contentVersions;
+        this.catalogResponseCache = catalogResponseCache;
     }
 
     /**
-     * Get mapping for /api/hotel/all to get all hotels
-     * @return list of all hotels
+     * Get mapping for /api/hotel/all to get all hotels. The body is streamed while the hotels are read,
+     * gzip compressed for clients that accept it.
+     * @param accept the Accept header, JSON or Smile
+     * @param acceptEncoding the Accept-Encoding header
+     * @param request the request, used to answer conditional requests
+     * @return list of all hotels, 304 if the catalog did not change, or 406 if neither JSON nor Smile is acceptable
      */
     @GetMapping("/all")
-    public ResponseEntity<Iterable<Hotel>> getAll() {
-        return ResponseEntity.ok(hotelRepository.findAll());
+    public ResponseEntity<StreamingResponseBody> getAll(@RequestHeader(value = HttpHeaders.ACCEPT, defaultValue = "*/*") String accept,
+                                                        @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, defaultValue = "") String acceptEncoding,
+                                                        WebRequest request) {
+        MediaType format = CatalogResponseCache.selectFormat(accept);
+        if (format == null) {
+            return ResponseEntity.status(HttpStatus.NOT_ACCEPTABLE).build();
+        }
+        boolean gzip = CatalogResponseCache.acceptsGzip(acceptEncoding);
+        if (request.checkNotModified(catalogResponseCache.eTag(format, gzip))) {
+            return null;
+        }
+        return catalogResponseCache.stream(format, gzip);
+    }
+
+    /**
+     * Get mapping for /api/hotel/all?after={id}&limit={n} to get one page of hotels, ordered by id
+     * @param after the cursor, only hotels with a greater id are returned
+     * @param limit the maximum number of hotels on the page
+     * @param accept the Accept header, JSON or Smile
+     * @param acceptEncoding the Accept-Encoding header
+     * @param request the request, used to answer conditional requests
+     * @return the page of hotels with the cursor for the next page, 304 if the catalog did not change,
+     *         or 406 if neither JSON nor Smile is acceptable
+     */
+    @GetMapping(value = "/all", params = {"limit", "!fields"})
+    public ResponseEntity<byte[]> getPage(@RequestParam(defaultValue = "0") long after, @RequestParam int limit,
+                                          @RequestHeader(value = HttpHeaders.ACCEPT, defaultValue = "*/*") String accept,
+                                          @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, defaultValue = "") String acceptEncoding,
+                                          WebRequest request) {
+        if (limit <= 0 || limit > MAX_PAGE_SIZE) {
+            return ResponseEntity.badRequest().build();
+        }
+        MediaType format = CatalogResponseCache.selectFormat(accept);
+        if (format == null) {
+            return ResponseEntity.status(HttpStatus.NOT_ACCEPTABLE).build();
+        }
+        boolean gzip = CatalogResponseCache.acceptsGzip(acceptEncoding);
+        if (request.checkNotModified(catalogResponseCache.eTag(format, gzip))) {
+            return null;
+        }
+        return catalogResponseCache.respond(format, gzip, after, limit);
+    }
+
+    /**
+     * Get mapping for /api/hotel/all?fields=id,name,... to get only some fields of the hotels, ordered by id.
+     * Requests for id, name, stars and facilities only are served without loading the hotel entities, other
+     * fields load the hotels one page at a time and need a limit.
+     * @param fields comma separated names of the fields to return
+     * @param after the cursor, only hotels with a greater id are returned
+     * @param limit the maximum number of hotels, 0 for all hotels when only summary fields are selected
+     * @param request the request, used to answer conditional requests
+     * @return the requested fields of the hotels, 304 if the catalog did not change, or 400 if other fields
+     *         than the summary fields are selected without a limit
+     */
+    @GetMapping(value = "/all", params = "fields")
+    public ResponseEntity<List<Map<String, Object>>> getAllFields(@RequestParam String fields,
+                                                                  @RequestParam(defaultValue = "0") long after,
+                                                                  @RequestParam(defaultValue = "0") int limit,
+                                                                  WebRequest request) {
+        Set<String> selected = HotelFields.parse(fields);
+        if (selected == null || limit < 0 || limit > MAX_PAGE_SIZE || (limit == 0 && !HotelFields.isSummary(selected))) {
+            return ResponseEntity.badRequest().build();
+        }
+        if (request.checkNotModified(contentVersions.catalogETag())) {
+            return null;
+        }
+        if (HotelFields.isSummary(selected)) {
+            List<HotelSummary> summaries = hotelService.findSummaries(after, limit, selected.contains("facilities"));
+            return ResponseEntity.ok(summaries.stream().map(summary -> HotelFields.project(summary, selected)).toList());
+        }
+        List<Hotel> hotels = hotelRepository.findByIdGreaterThanOrderByIdAsc(after, PageRequest.of(0, limit));
+        return ResponseEntity.ok(hotels.stream().map(hotel -> HotelFields.project(hotel, selected)).toList());
+    }
+
+    /**
+     * Get mapping for /api/hotel/summary to get id, name and stars of the hotels, ordered by id
+     * @param after the cursor, only hotels with a greater id are returned
+     * @param limit the maximum number of hotels
+     * @param facilities whether to include the facility names
+     * @param request the request, used to answer conditional requests
+     * @return the hotel summaries, or 304 if the catalog did not change
+     */
+    @GetMapping("/summary")
+    public ResponseEntity<List<HotelSummary>> getSummaries(@RequestParam(defaultValue = "0") long after,
+                                                           @RequestParam(defaultValue = "100") int limit,
+                                                           @RequestParam(defaultValue = "false") boolean facilities,
+                                                           WebRequest request) {
+        if (limit <= 0 || limit > MAX_PAGE_SIZE) {
+            return ResponseEntity.badRequest().build();
+        }
+        if (request.checkNotModified(contentVersions.catalogETag())) {
+            return null;
+        }
+        return ResponseEntity.ok(hotelService.findSummaries(after, limit, facilities));
+    }
+
+    /**
+     * Get mapping for /api/hotel/all/stream to stream all hotels as newline delimited JSON
+     * @return the response body that writes the hotels as they are read
+     */
+    @GetMapping(value = "/all/stream", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamAll() {
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(out -> hotelService.writeHotelsAsNdjson(out));
+    }
+
+    /**
+     * Get mapping for /api/hotel/search to find hotels by facilities and stars, ordered by id
+     * @param facilities the facility names to filter on
+     * @param match 'all' if a hotel needs every facility, 'any' if one of them is enough
+     * @param stars the accepted numbers of stars
+     * @param after the cursor, only hotels with a greater id are returned
+     * @param limit the maximum number of hotels on the page
+     * @return the page of matching hotels with the cursor for the next page
+     */
+    @GetMapping("/search")
+    public ResponseEntity<HotelPage> search(@RequestParam(defaultValue = "") List<String> facilities,
+                                            @RequestParam(defaultValue = "all") String match,
+                                            @RequestParam(defaultValue = "") List<Integer> stars,
+                                            @RequestParam(defaultValue = "0") long after,
+                                            @RequestParam(defaultValue = "100") int limit) {
+        if (!match.equals("all") && !match.equals("any")) {
+            return ResponseEntity.badRequest().build();
+        }
+        if (limit <= 0 || limit > MAX_PAGE_SIZE) {
+            return ResponseEntity.badRequest().build();
+        }
+        List<Long> ids = hotelFacilityIndex.search(facilities, match.equals("all"), stars, after, limit);
+        List<Hotel> hotels = new ArrayList<>(hotelRepository.findAllById(ids));
+        hotels.sort(Comparator.comparingLong(Hotel::getId));
+        Long next = ids.size() == limit ? ids.get(ids.size() - 1) : null;
+        return ResponseEntity.ok(new HotelPage(hotels, next));
+    }
+
+    /**
+     * Get mapping for /api/hotel/search/name to find hotels by (partial) name
+     * @param q the name or name prefix to look for
+     * @param typos the maximum number of typos to tolerate, at most 2
+     * @param limit the maximum number of matches
+     * @return the matching hotels, best match first
+     */
+    @GetMapping("/search/name")
+    public ResponseEntity<List<HotelNameMatch>> searchByName(@RequestParam String q,
+                                                             @RequestParam(defaultValue = "0") int typos,
+                                                             @RequestParam(defaultValue = "10") int limit) {
+        if (typos < 0 || typos > HotelNameIndex.MAX_DISTANCE || limit <= 0 || limit > MAX_PAGE_SIZE) {
+            return ResponseEntity.badRequest().build();
+        }
+        return ResponseEntity.ok(hotelNameIndex.search(q, typos, limit));
+    }
+
+    /**
+     * Get mapping for /api/hotel/top to get the best hotels by stars, by the number of wishlists
+     * that contain them, or by a score weighing both
+     * @param by 'stars', 'wishlisted' or 'score'
+     * @param facilities the facility names a hotel must have
+     * @param limit the maximum number of hotels
+     * @return the best hotels, best first
+     */
+    @GetMapping("/top")
+    public ResponseEntity<List<HotelRanking>> top(@RequestParam(defaultValue = "score") String by,
+                                                  @RequestParam(defaultValue = "") List<String> facilities,
+                                                  @RequestParam(defaultValue = "10") int limit) {
+        HotelLeaderboard.Metric metric;
+        try {
+            metric = HotelLeaderboard.Metric.valueOf(by.toUpperCase());
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+        if (limit <= 0 || limit > MAX_PAGE_SIZE) {
+            return ResponseEntity.badRequest().build();
+        }
+        return ResponseEntity.ok(hotelLeaderboard.top(metric, facilities, limit));
+    }
+
+    /**
+     * Get mapping for /api/hotel/popular to get the hotels that are in the most wishlists
+     * @param limit the maximum number of hotels
+     * @return the most wishlisted hotels with their wishlist counts, most wishlisted first
+     */
+    @GetMapping("/popular")
+    public ResponseEntity<List<HotelPopularity>> getMostWishlisted(@RequestParam(defaultValue = "10") int limit) {
+        if (limit <= 0 || limit > MAX_PAGE_SIZE) {
+            return ResponseEntity.badRequest().build();
+        }
+        return ResponseEntity.ok(hotelPopularityCounters.top(limit));
+    }
+
+    /**
+     * Get mapping for /api/hotel/{id}/popularity to get the number of wishlists that contain a hotel
+     * @param id the id specified in the path
+     * @return the wishlist count of the hotel
+     */
+    @GetMapping("/{id}/popularity")
+    public ResponseEntity<HotelPopularity> getPopularity(@PathVariable long id) {
+        if (!hotelRepository.existsById(id)) {
+            return ResponseEntity.notFound().build();
+        }
+        return ResponseEntity.ok(new HotelPopularity(id, hotelPopularityCounters.count(id)));
     }
 
     /**
      * Get mapping for /api/hotel/{id} to get a hotel by id
      * @param id the id specified in the path
-     * @return  the hotel with the specified id
+     * @param accept the Accept header, JSON or Smile
+     * @param request the request, used to answer conditional requests
+     * @return  the hotel with the specified id, 304 if the catalog did not change, or 406 if neither JSON nor
+     *          Smile is acceptable
      */
     @GetMapping("/{id}")
-    public ResponseEntity<Hotel> getHotelById(@PathVariable long id) {
-        return hotelRepository.findById(id)
-                .map(hotel -> ResponseEntity.ok().body(hotel))
+    public ResponseEntity<Hotel> getHotelById(@PathVariable long id,
+                                              @RequestHeader(value = HttpHeaders.ACCEPT, defaultValue = "*/*") String accept,
+                                              WebRequest request) {
+        MediaType format = CatalogResponseCache.selectFormat(accept);
+        if (format == null) {
+            return ResponseEntity.status(HttpStatus.NOT_ACCEPTABLE).build();
+        }
+        if (request.checkNotModified(catalogResponseCache.eTag(format, false))) {
+            return null;
+        }
+        return hotelService.findHotel(id)
+                .map(hotel -> negotiated(format).body(hotel))
+                .orElse(ResponseEntity.notFound().build());
+    }
+
+    /**
+     * Get mapping for /api/hotel?ids=1,2,3 to get several hotels at once
+     * @param ids the ids of the hotels
+     * @return the hotels in the requested order, and the ids that were not found
+     */
+    @GetMapping(params = "ids")
+    public ResponseEntity<HotelBatch> getHotelsByIds(@RequestParam List<Long> ids) {
+        if (ids.size() > MAX_PAGE_SIZE) {
+            return ResponseEntity.badRequest().build();
+        }
+        return ResponseEntity.ok(hotelService.findHotels(ids));
+    }
+
+    /**
+     * Post mapping for /api/hotel/batch to get several hotels at once, for id lists too long for a query string
+     * @param ids the ids of the hotels
+     * @return the hotels in the requested order, and the ids that were not found
+     */
+    @PostMapping("/batch")
+    public ResponseEntity<HotelBatch> getHotelsByIdsInBody(@RequestBody List<Long> ids) {
+        if (ids.size() > MAX_BATCH_SIZE) {
+            return ResponseEntity.badRequest().build();
+        }
+        return ResponseEntity.ok(hotelService.findHotels(ids));
+    }
+
+    /**
+     * Get mapping for /api/hotel/{id}?fields=id,name,... to get only some fields of a hotel
+     * @param id the id specified in the path
+     * @param fields comma separated names of the fields to return
+     * @param accept the Accept header, JSON or Smile
+     * @param request the request, used to answer conditional requests
+     * @return the requested fields of the hotel, 304 if the catalog did not change, or 406 if neither JSON nor
+     *         Smile is acceptable
+     */
+    @GetMapping(value = "/{id}", params = "fields")
+    public ResponseEntity<Map<String, Object>> getHotelFieldsById(@PathVariable long id, @RequestParam String fields,
+                                                                  @RequestHeader(value = HttpHeaders.ACCEPT, defaultValue = "*/*") String accept,
+                                                                  WebRequest request) {
+        Set<String> selected = HotelFields.parse(fields);
+        if (selected == null) {
+            return ResponseEntity.badRequest().build();
+        }
+        MediaType format = CatalogResponseCache.selectFormat(accept);
+        if (format == null) {
+            return ResponseEntity.status(HttpStatus.NOT_ACCEPTABLE).build();
+        }
+        if (request.checkNotModified(catalogResponseCache.eTag(format, false))) {
+            return null;
+        }
+        return hotelService.findHotel(id)
+                .map(hotel -> negotiated(format).body(HotelFields.project(hotel, selected)))
                 .orElse(ResponseEntity.notFound().build());
     }
 
+    /**
+     * Starts a response in the format chosen for the Accept header, which the ETag of the response depends on
+     */
+    private static ResponseEntity.BodyBuilder negotiated(MediaType format) {
+        return ResponseEntity.ok().contentType(format).header(HttpHeaders.VARY, HttpHeaders.ACCEPT);
+    }
+
     /**
      * Post mapping for /api/hotel to create a hotel
      * @param hotel the hotel to be created
@@ -52,6 +381,7 @@ public class HotelController {
             return ResponseEntity.badRequest().build();
         }
         Hotel savedHotel = hotelRepository.save(hotel);
+        hotelService.onHotelSaved(savedHotel);
         return ResponseEntity.ok(savedHotel);
     }
 
@@ -71,6 +401,7 @@ public class HotelController {
                     existingHotel.setPhoto(updatedHotel.getPhoto());
                     existingHotel.setFacilities(updatedHotel.getFacilities());
                     Hotel savedHotel = hotelRepository.save(existingHotel);
+                    hotelService.onHotelSaved(savedHotel);
                     return ResponseEntity.ok(savedHotel);
                 })
                 .orElse(ResponseEntity.notFound().build());
@@ -87,18 +418,37 @@ public class HotelController {
             return ResponseEntity.notFound().build();
         }
         hotelRepository.deleteById(id);
+        hotelService.onHotelDeleted(id);
         return ResponseEntity.ok().build();
     }
 
     /**
      * Get mapping for /api/hotel/{id}/facilities to get the facilities of a hotel
      * @param id the id specified in the path
-     * @return the hotel with the specified id
+     * @return the facilities of the hotel with the specified id
      */
     @GetMapping("/{id}/facilities")
-    public ResponseEntity<Hotel> getHotelFacilities(@PathVariable long id) {
-        return hotelRepository.findById(id)
-                .map(hotel -> ResponseEntity.ok().body(hotel))
+    public ResponseEntity<List<HotelFacility>> getHotelFacilities(@PathVariable long id) {
+        return hotelService.findHotel(id)
+                .map(hotel -> ResponseEntity.ok().body(hotel.getFacilities()))
                 .orElse(ResponseEntity.notFound().build());
     }
+
+    /**
+     * Get mapping for /api/hotel/cache/stats to get the counters of the hotel cache
+     * @return the hit, miss and eviction counters of the hotel cache
+     */
+    @GetMapping("/cache/stats")
+    public ResponseEntity<BoundedCache.Stats> getCacheStats() {
+        return ResponseEntity.ok(hotelService.getCacheStats());
+    }
+
+    /**
+     * Get mapping for /api/hotel/cache/responses/stats to get the counters of the cache of serialized hotel listings
+     * @return the hit, miss and eviction counters of the response cache
+     */
+    @GetMapping("/cache/responses/stats")
+    public ResponseEntity<BoundedCache.Stats> getResponseCacheStats() {
+        return ResponseEntity.ok(catalogResponseCache.getStats());
+    }
 }
@@ -0,0 +1,90 @@
+package server.api;
+
+import commons.Hotel;
+import commons.HotelFacility;
+import commons.HotelSummary;
+
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Sparse fieldsets for hotel responses, selected with ?fields=id,name,...
+ */
+public final class HotelFields {
+    public static final Set<String> ALL = Set.of("id", "name", "stars", "page_url", "photo", "facilities");
+    public static final Set<String> SUMMARY = Set.of("id", "name", "stars", "facilities");
+
+    private HotelFields() {}
+
+    /**
+     * Parses a comma separated list of field names
+     * @param fields the value of the fields parameter
+     * @return the requested fields in request order, null if one of them is unknown
+     */
+    public static Set<String> parse(String fields) {
+        Set<String> result = new LinkedHashSet<>();
+        for (String field : fields.split(",")) {
+            String trimmed = field.trim();
+            if (!ALL.contains(trimmed)) {
+                return null;
+            }
+            result.add(trimmed);
+        }
+        return result;
+    }
+
+    /**
+     * Whether the fields can be served from hotel summaries instead of full hotels
+     * @param fields the requested fields
+     * @return true if all fields are part of the summary
+     */
+    public static boolean isSummary(Set<String> fields) {
+        return SUMMARY.containsAll(fields);
+    }
+
+    /**
+     * Selects the requested fields of a hotel
+     * @param hotel the hotel
+     * @param fields the requested fields
+     * @return the field values by name, facilities as a list of names
+     */
+    public static Map<String, Object> project(Hotel hotel, Set<String> fields) {
+        Map<String, Object> result = new LinkedHashMap<>();
+        for (String field : fields) {
+            switch (field) {
+                case "id" -> result.put(field, hotel.getId());
+                case "name" -> result.put(field, hotel.getName());
+                case "stars" -> result.put(field, hotel.getStars());
+                case "page_url" -> result.put(field, hotel.getPage_url());
+                case "photo" -> result.put(field, hotel.getPhoto());
+                case "facilities" -> result.put(field, hotel.getFacilities() == null ? List.of()
+                        : hotel.getFacilities().stream().map(HotelFacility::getName).toList());
+                default -> throw new IllegalArgumentException("Unknown hotel field: " + field);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Selects the requested fields of a hotel summary
+     * @param summary the hotel summary
+     * @param fields the requested fields, all part of the summary
+     * @return the field values by name
+     */
+    public static Map<String, Object> project(HotelSummary summary, Set<String> fields) {
+        Map<String, Object> result = new LinkedHashMap<>();
+        for (String field : fields) {
+            switch (field) {
+                case "id" -> result.put(field, summary.getId());
+                case "name" -> result.put(field, summary.getName());
+                case "stars" -> result.put(field, summary.getStars());
+                case "facilities" -> result.put(field, summary.getFacilities());
+                default -> throw new IllegalArgumentException("Not a summary field: " + field);
+            }
+        }
+        return result;
+    }
+}
@@ -1,34 +1,49 @@
 package server.api;
 
 import commons.Person;
+import commons.PersonSummary;
 import commons.WishList;
+import commons.WishListDelta;
+import commons.WishListOperation;
+import commons.WishListOperationResult;
+import commons.WishListSync;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import server.database.HotelRepository;
 import server.database.PersonRepository;
 import server.database.WishListRepository;
+import server.services.WishListService;
 
 import java.util.List;
-import java.util.Optional;
 
 
 @RestController
 @RequestMapping("api/person")
 public class PersonController {
+    static final int MAX_BATCH_OPERATIONS = 1000;
+
     PersonRepository personRepository;
     WishListRepository wishListRepository;
     HotelRepository hotelRepository;
+    WishListService wishListService;
 
     /**
      * Constructs a PersonController with the person repository, wish list repository, and hotel repository.
      * @param personRepository the person repository
      * @param wishListRepository the wish list repository
      * @param hotelRepository the hotel repository
+     * @param wishListService the service that updates everything derived from wish lists after a change
      */
-    public PersonController(PersonRepository personRepository, WishListRepository wishListRepository, HotelRepository hotelRepository) {
+    public PersonController(PersonRepository personRepository, WishListRepository wishListRepository, HotelRepository hotelRepository,
+                            WishListService wishListService) {
         this.personRepository = personRepository;
         this.wishListRepository = wishListRepository;
         this.hotelRepository = hotelRepository;
+        this.wishListService = wishListService;
     }
 
     /**
@@ -43,6 +58,32 @@ public class PersonController {
                 .orElse(ResponseEntity.notFound().build());
     }
 
+    /**
+     * Head mapping for /api/person/{username} to check whether a person exists, without loading it
+     * @param username the username specified in the path
+     * @return ok if the person exists, not found otherwise
+     */
+    @RequestMapping(value = "/{username}", method = RequestMethod.HEAD)
+    public ResponseEntity<Void> personExists(@PathVariable String username) {
+        return personRepository.existsById(username)
+                ? ResponseEntity.ok().build()
+                : ResponseEntity.notFound().build();
+    }
+
+    /**
+     * Get mapping for /api/person/{username}/summary to get the names of the wish lists of a person
+     * and the number of hotels in each, without loading the hotels
+     * @param username the username specified in the path
+     * @return the summary of the person
+     */
+    @GetMapping("/{username}/summary")
+    public ResponseEntity<PersonSummary> getPersonSummary(@PathVariable String username) {
+        if (!personRepository.existsById(username)) {
+            return ResponseEntity.notFound().build();
+        }
+        return ResponseEntity.ok(new PersonSummary(username, wishListRepository.findSummariesByOwner(username)));
+    }
+
     /**
      * Post mapping for /api/person to create a person
      * @param person the person to be created
@@ -81,11 +122,9 @@ public class PersonController {
      */
     @DeleteMapping("/{username}")
     public ResponseEntity<Void> deletePerson(@PathVariable String username) {
-        if (!personRepository.existsById(username)) {
-            return ResponseEntity.notFound().build();
-        }
-        personRepository.deleteById(username);
-        return ResponseEntity.ok().build();
+        return wishListService.deletePerson(username)
+                ? ResponseEntity.ok().build()
+                : ResponseEntity.notFound().build();
     }
 
     /**
@@ -101,6 +140,20 @@ public class PersonController {
         return ResponseEntity.ok(personRepository.findById(username).get().getWishLists());
     }
 
+    /**
+     * Get mapping for /api/person/{username}/wishlists/sync to get the changes of the wish lists of a person since
+     * the last sync, or all wish lists if the client is too far behind
+     * @param username the username specified in the path
+     * @param since the sequence returned by the previous sync, left out on the first sync
+     * @return the changes or the wish lists, with the sequence to pass to the next sync
+     */
+    @GetMapping("/{username}/wishlists/sync")
+    public ResponseEntity<WishListSync> syncWishLists(@PathVariable String username, @RequestParam(required = false) Long since) {
+        return wishListService.sync(username, since)
+                .map(sync -> ResponseEntity.ok(sync))
+                .orElse(ResponseEntity.notFound().build());
+    }
+
     /**
      * Get mapping for /api/person/{username}/wishlist/{name} to get a wish list by name
      * @param username the username specified in the path
@@ -109,9 +162,7 @@ public class PersonController {
      */
     @GetMapping("/{username}/wishlist/{name}")
     public ResponseEntity<WishList> getWishListByName(@PathVariable String username, @PathVariable String name) {
-        return personRepository.findById(username).get().getWishLists().stream()
-                .filter(wishList -> wishList.getName().equals(name))
-                .findFirst()
+        return wishListRepository.findByOwnerUsernameAndName(username, name)
                 .map(wishList -> ResponseEntity.ok(wishList))
                 .orElse(ResponseEntity.notFound().build());
     }
@@ -120,33 +171,21 @@ public class PersonController {
      * Post mapping for /api/person/{username}/wishlist to create a wish list
      * @param username the username specified in the path
      * @param wishListName the name of the wish list
-     * @return the created wish list
+     * @return the created wish list, or bad request if the person already has a wish list with this name
      */
     @PostMapping("/{username}/wishlist")
     public ResponseEntity<WishList> createWishList(@PathVariable String username, @RequestParam String wishListName) {
-        return personRepository.findById(username)
-                .map(person -> {
-                    if (wishListName == null) throw new RuntimeException("Lofi");
-                    WishList wishList = new WishList(wishListName);
-                    wishList.setOwner(person);
-                    WishList savedWishList = wishListRepository.save(wishList);
-                    person.addWishList(wishList);
-                    personRepository.save(person);
-                    return ResponseEntity.ok(savedWishList);
-                })
-                .orElse(ResponseEntity.notFound().build());
+        if (!personRepository.existsById(username)) {
+            return ResponseEntity.notFound().build();
+        }
+        if (wishListName == null) throw new RuntimeException("Lofi");
+        return ResponseEntity.ok(wishListService.createWishList(username, wishListName));
     }
 
     @PutMapping("/{username}/wishlist/{name}")
     public ResponseEntity<WishList> updateWishList(@PathVariable String username, @PathVariable String name, @RequestBody WishList updatedWishList) {
-        return personRepository.findById(username).get().getWishLists().stream()
-                .filter(wishList -> wishList.getName().equals(name))
-                .findFirst()
-                .map(wishList -> {
-                    wishList.setName(updatedWishList.getName());
-                    WishList savedWishList = wishListRepository.save(wishList);
-                    return ResponseEntity.ok(savedWishList);
-                })
+        return wishListService.renameWishList(username, name, updatedWishList.getName())
+                .map(wishList -> ResponseEntity.ok(wishList))
                 .orElse(ResponseEntity.notFound().build());
     }
 
@@ -158,26 +197,9 @@ public class PersonController {
      */
     @DeleteMapping("/{username}/wishlist/{name}")
     public ResponseEntity<Void> deleteWishList(@PathVariable String username, @PathVariable String name) {
-        Optional<Person> personOptional = personRepository.findById(username);
-
-        if (personOptional.isEmpty()) {
-            return ResponseEntity.notFound().build();
-        }
-
-        Person person = personOptional.get();
-        System.out.println(person.getWishLists());
-        WishList wishList = person.getWishLists().stream()
-                .filter(wishList1 -> wishList1.getName().equals(name))
-                .findFirst()
-                .orElse(null);
-
-        if(wishList != null) {
-            person.removeWishList(wishList);
-            personRepository.save(person);
-            return ResponseEntity.ok().build();
-        }
-
-        return ResponseEntity.notFound().build();
+        return wishListService.deleteWishList(username, name)
+                ? ResponseEntity.ok().build()
+                : ResponseEntity.notFound().build();
     }
 
     /**
@@ -185,18 +207,15 @@ public class PersonController {
      * @param username the username specified in the path
      * @param name the name specified in the path
      * @param hotelId the hotel id specified in the path
-     * @return the updated wish list
+     * @return the change to the wish list
      */
     @PostMapping("/{username}/wishlist/{name}/addHotel/{hotelId}")
-    public ResponseEntity<WishList> addHotelToWishList(@PathVariable String username, @PathVariable String name, @PathVariable long hotelId) {
-        return personRepository.findById(username).get().getWishLists().stream()
-                .filter(wishList -> wishList.getName().equals(name))
-                .findFirst()
-                .map(wishList -> {
-                    wishList.addHotel(hotelRepository.findById(hotelId).get());
-                    WishList savedWishList = wishListRepository.save(wishList);
-                    return ResponseEntity.ok(savedWishList);
-                })
+    public ResponseEntity<WishListDelta> addHotelToWishList(@PathVariable String username, @PathVariable String name, @PathVariable long hotelId) {
+        if (!hotelRepository.existsById(hotelId)) {
+            return ResponseEntity.notFound().build();
+        }
+        return wishListService.addHotel(username, name, hotelId)
+                .map(delta -> ResponseEntity.ok(delta))
                 .orElse(ResponseEntity.notFound().build());
     }
 
@@ -205,21 +224,34 @@ public class PersonController {
      * @param username the username specified in the path
      * @param name the name specified in the path
      * @param hotelId the hotel id specified in the path
-     * @return the updated wish list
+     * @return the change to the wish list
      */
     @DeleteMapping("/{username}/wishlist/{name}/removeHotel/{hotelId}")
-    public ResponseEntity<WishList> removeHotelFromWishList(@PathVariable String username, @PathVariable String name, @PathVariable long hotelId) {
-        return personRepository.findById(username).get().getWishLists().stream()
-                .filter(wishList -> wishList.getName().equals(name))
-                .findFirst()
-                .map(wishList -> {
-                    wishList.removeHotel(hotelRepository.findById(hotelId).get());
-                    WishList savedWishList = wishListRepository.save(wishList);
-                    return ResponseEntity.ok(savedWishList);
-                })
+    public ResponseEntity<WishListDelta> removeHotelFromWishList(@PathVariable String username, @PathVariable String name, @PathVariable long hotelId) {
+        return wishListService.removeHotel(username, name, hotelId)
+                .map(delta -> ResponseEntity.ok(delta))
                 .orElse(ResponseEntity.notFound().build());
     }
 
+    /**
+     * Post mapping for /api/person/{username}/wishlist/batch to apply several wish list operations at once.
+     * All operations run in one transaction; an operation that cannot be applied does not stop the others.
+     * @param username the username specified in the path
+     * @param operations the operations to apply, in order
+     * @return the outcome of every operation, or conflict if a concurrent change got in the way
+     */
+    @PostMapping("/{username}/wishlist/batch")
+    public ResponseEntity<List<WishListOperationResult>> applyWishListOperations(@PathVariable String username,
+                                                                                 @RequestBody List<WishListOperation> operations) {
+        if (operations.size() > MAX_BATCH_OPERATIONS) {
+            return ResponseEntity.badRequest().build();
+        }
+        if (!personRepository.existsById(username)) {
+            return ResponseEntity.notFound().build();
+        }
+        return ResponseEntity.ok(wishListService.applyOperations(username, operations));
+    }
+
     /**
      * Get mapping for /api/person/{username}/wishlist/{name}/share to share a wish list
      * @param username the username specified in the path
@@ -228,12 +260,28 @@ public class PersonController {
      */
     @GetMapping("/{username}/wishlist/{name}/share")
     public ResponseEntity<String> shareWishList(@PathVariable String username, @PathVariable String name) {
-        return personRepository.findById(username).get().getWishLists().stream()
-                .filter(wishList -> wishList.getName().equals(name))
-                .findFirst()
+        return wishListRepository.findByOwnerUsernameAndName(username, name)
                 .map(wishList -> ResponseEntity.ok(wishList.getSharingCode()))
                 .orElse(ResponseEntity.notFound().build());
     }
 
+    /**
+     * Answers bad request when a wish list name is already used by the same person
+     * @param e the exception
+     * @return bad request
+     */
+    @ExceptionHandler(DuplicateKeyException.class)
+    public ResponseEntity<Void> handleDuplicateName(DuplicateKeyException e) {
+        return ResponseEntity.badRequest().build();
+    }
 
+    /**
+     * Answers conflict when a change could not be applied because of concurrent changes, even after retrying
+     * @param e the exception
+     * @return conflict
+     */
+    @ExceptionHandler({OptimisticLockingFailureException.class, DataIntegrityViolationException.class})
+    public ResponseEntity<Void> handleConcurrentChange(RuntimeException e) {
+        return ResponseEntity.status(HttpStatus.CONFLICT).build();
+    }
 }
@@ -0,0 +1,31 @@
+package server.api;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import server.services.CatalogStatus;
+
+@RestController
+@RequestMapping("api/status")
+public class StatusController {
+
+    CatalogStatus catalogStatus;
+
+    /**
+     * Constructor for StatusController
+     * @param catalogStatus the status of the catalog load
+     */
+    public StatusController(CatalogStatus catalogStatus) {
+        this.catalogStatus = catalogStatus;
+    }
+
+    /**
+     * Get mapping for /api/status/ready to check whether the catalog is loaded
+     * @return the progress of the catalog load, with status 200 when ready and 503 otherwise
+     */
+    @GetMapping("/ready")
+    public ResponseEntity<CatalogStatus> getReadiness() {
+        HttpStatus status = catalogStatus.isReady() ? HttpStatus.OK : HttpStatus.SERVICE_UNAVAILABLE;
+        return ResponseEntity.status(status).body(catalogStatus);
+    }
+}
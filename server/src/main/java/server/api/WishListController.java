@@ -1,36 +1,68 @@
 package server.api;
 
-import commons.WishList;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
-import server.database.HotelRepository;
-import server.database.PersonRepository;
-import server.database.WishListRepository;
+import org.springframework.web.context.request.WebRequest;
+import server.services.BoundedCache;
+import server.services.CatalogResponseCache;
+import server.services.SharedWishListCache;
+
+import java.util.Optional;
 
 @RestController
 @RequestMapping("api/wishlist")
 public class WishListController {
 
-    WishListRepository wishListRepository;
+    SharedWishListCache sharedWishListCache;
 
     /**
      * Constructor for WishListController
-     * @param wishListRepository the wish list repository
+     * @param sharedWishListCache the snapshots of shared wish lists
      */
-    public WishListController(WishListRepository wishListRepository) {
-        this.wishListRepository = wishListRepository;
+    public WishListController(SharedWishListCache sharedWishListCache) {
+        this.sharedWishListCache = sharedWishListCache;
     }
 
     /**
-     * Get mapping for /api/wishlist/shared/{code} to get a wish list by sharing code
+     * Get mapping for /api/wishlist/shared/{code} to get a wish list by sharing code, answered from the
+     * snapshot of the wish list in JSON or Smile
      * @param code the sharing code specified in the path
-     * @return the wish list with the specified sharing code
+     * @param accept the Accept header, selects JSON or Smile
+     * @param request the request, used to answer conditional requests
+     * @return the wish list with the specified sharing code, or 304 if it did not change
      */
     @GetMapping("/shared/{code}")
-    public ResponseEntity<WishList> getWishListBySharingCode(@PathVariable String code) {
-        return wishListRepository.findBySharingCode(code)
-                .map(wishList -> ResponseEntity.ok(wishList))
-                .orElse(ResponseEntity.notFound().build());
+    public ResponseEntity<byte[]> getWishListBySharingCode(@PathVariable String code,
+                                                           @RequestHeader(value = HttpHeaders.ACCEPT, defaultValue = "*/*") String accept,
+                                                           WebRequest request) {
+        MediaType format = CatalogResponseCache.selectFormat(accept);
+        if (format == null) {
+            return ResponseEntity.status(HttpStatus.NOT_ACCEPTABLE).build();
+        }
+        Optional<SharedWishListCache.Snapshot> snapshot = sharedWishListCache.find(code);
+        if (snapshot.isEmpty()) {
+            return ResponseEntity.notFound().build();
+        }
+        // the version of the snapshot, which may briefly lag behind a change that is still being rebuilt
+        if (request.checkNotModified(snapshot.get().getETag(format))) {
+            return null;
+        }
+        return ResponseEntity.ok()
+                .contentType(format)
+                .header(HttpHeaders.VARY, HttpHeaders.ACCEPT)
+                .body(snapshot.get().getBody(format));
+    }
+
+    /**
+     * Get mapping for /api/wishlist/shared/cache/stats to get the counters of the shared wish list cache
+     * @return the counters of the cache
+     */
+    @GetMapping("/shared/cache/stats")
+    public ResponseEntity<BoundedCache.Stats> getSharedCacheStats() {
+        return ResponseEntity.ok(sharedWishListCache.getStats());
     }
 
 }
@@ -0,0 +1,25 @@
+package server.config;
+
+import commons.Hotel;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import server.services.BoundedCache;
+
+import java.time.Duration;
+
+@Configuration
+public class CacheConfig {
+
+    /**
+     * Cache of hotels by id, in front of the hotel repository
+     * @param maxSize maximum number of cached hotels
+     * @param ttl time after which a cached hotel is reloaded
+     * @return the hotel cache
+     */
+    @Bean
+    public BoundedCache<Long, Hotel> hotelCache(@Value("${hotel.cache.max-size:10000}") int maxSize,
+                                                @Value("${hotel.cache.ttl:10m}") Duration ttl) {
+        return new BoundedCache<>(maxSize, ttl);
+    }
+}
@@ -0,0 +1,37 @@
+package server.config;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.HandlerInterceptor;
+import server.services.CatalogStatus;
+
+/**
+ * Answers 503 on endpoints that need the hotel catalog while it is still loading
+ */
+@Component
+public class CatalogReadinessInterceptor implements HandlerInterceptor {
+    private static final String RETRY_AFTER_SECONDS = "5";
+
+    private final CatalogStatus catalogStatus;
+
+    /**
+     * Constructor for CatalogReadinessInterceptor
+     * @param catalogStatus the status of the catalog load
+     */
+    public CatalogReadinessInterceptor(CatalogStatus catalogStatus) {
+        this.catalogStatus = catalogStatus;
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        if (catalogStatus.isReady()) {
+            return true;
+        }
+        response.setStatus(HttpStatus.SERVICE_UNAVAILABLE.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, RETRY_AFTER_SECONDS);
+        return false;
+    }
+}
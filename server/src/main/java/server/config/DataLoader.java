@@ -3,16 +3,40 @@ package server.config;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.CommandLineRunner;
 import org.springframework.stereotype.Component;
+import server.services.CatalogStatus;
 import server.services.HotelService;
+import server.services.WishListService;
 
+/**
+ * Loads the hotel catalog in the background, so the server accepts requests while it loads.
+ * Endpoints that need the catalog are held back by {@link CatalogReadinessInterceptor} until it is ready.
+ */
 @Component
 public class DataLoader implements CommandLineRunner {
 
     @Autowired
     private HotelService hotelService;
+    @Autowired
+    private CatalogStatus catalogStatus;
+    @Autowired
+    private WishListService wishListService;
 
     @Override
-    public void run(String... args) throws Exception {
-        hotelService.loadHotelsFromJson("hotels.json");
+    public void run(String... args) {
+        Thread loader = new Thread(() -> {
+            try {
+                // wishlist hotels stored before positions were kept get theirs
+                if (wishListService.hasUnpositionedHotels()) {
+                    wishListService.compactHotelPositions();
+                }
+                hotelService.loadHotelsFromJson("hotels.json");
+                catalogStatus.ready();
+            } catch (Exception e) {
+                catalogStatus.failed(e);
+                e.printStackTrace();
+            }
+        }, "catalog-loader");
+        loader.setDaemon(true);
+        loader.start();
     }
 }
@@ -0,0 +1,44 @@
+package server.config;
+
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.util.List;
+
+@Configuration
+public class WebConfig implements WebMvcConfigurer {
+
+    private final CatalogReadinessInterceptor catalogReadinessInterceptor;
+    private final Jackson2ObjectMapperBuilder objectMapperBuilder;
+
+    /**
+     * Constructor for WebConfig
+     * @param catalogReadinessInterceptor holds back catalog requests while the catalog loads
+     * @param objectMapperBuilder the object mapper builder with the Spring Boot Jackson settings
+     */
+    public WebConfig(CatalogReadinessInterceptor catalogReadinessInterceptor, Jackson2ObjectMapperBuilder objectMapperBuilder) {
+        this.catalogReadinessInterceptor = catalogReadinessInterceptor;
+        this.objectMapperBuilder = objectMapperBuilder;
+    }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(catalogReadinessInterceptor).addPathPatterns("/api/hotel/**", "/api/admin/**");
+    }
+
+    /**
+     * Adds Smile, a binary encoding of the JSON data model, for clients that ask for application/x-jackson-smile.
+     * It is added after the JSON converter, so clients that accept anything still get JSON.
+     * @param converters the configured message converters
+     */
+    @Override
+    public void extendMessageConverters(List<HttpMessageConverter<?>> converters) {
+        converters.removeIf(converter -> converter instanceof MappingJackson2SmileHttpMessageConverter);
+        converters.add(new MappingJackson2SmileHttpMessageConverter(objectMapperBuilder.factory(new SmileFactory()).build()));
+    }
+}
@@ -0,0 +1,58 @@
+package server.database;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+
+import java.time.Instant;
+
+/**
+ * Records the checksum of the last imported version of a catalog source file
+ */
+@Entity
+public class CatalogImport {
+    @Id
+    private String source;
+    private String checksum;
+    private Instant importedAt;
+
+    /**
+     * Default constructor, for JPA
+     */
+    public CatalogImport() {}
+
+    /**
+     * Constructs a CatalogImport object with the given parameters
+     * @param source name of the imported file
+     * @param checksum checksum of the imported content
+     * @param importedAt time of the import
+     */
+    public CatalogImport(String source, String checksum, Instant importedAt) {
+        this.source = source;
+        this.checksum = checksum;
+        this.importedAt = importedAt;
+    }
+
+    /**
+     * Getter for the name of the imported file
+     * @return name of the imported file
+     */
+    public String getSource() {
+        return source;
+    }
+
+    /**
+     * Getter for the checksum of the imported content
+     * @return checksum of the imported content
+     */
+    public String getChecksum() {
+        return checksum;
+    }
+
+    /**
+     * Getter for the time of the import
+     * @return time of the import
+     */
+    public Instant getImportedAt() {
+        return importedAt;
+    }
+}
@@ -0,0 +1,55 @@
+package server.database;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
+
+/**
+ * Id of a hotel that was in the last imported version of a catalog source file, written and read with JDBC
+ * by HotelImportService. Mapped so the table is created with the rest of the schema.
+ */
+@Entity
+@Table(name = "catalog_import_hotel",
+        uniqueConstraints = @UniqueConstraint(name = "uk_catalog_import_hotel", columnNames = {"source", "hotel_id"}))
+public class CatalogImportHotel {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private long id;
+    @Column(nullable = false)
+    private String source;
+    @Column(name = "hotel_id", nullable = false)
+    private long hotelId;
+
+    /**
+     * Default constructor, for JPA
+     */
+    public CatalogImportHotel() {}
+
+    /**
+     * Getter for the id of the row
+     * @return id of the row
+     */
+    public long getId() {
+        return id;
+    }
+
+    /**
+     * Getter for the name of the imported file
+     * @return name of the imported file
+     */
+    public String getSource() {
+        return source;
+    }
+
+    /**
+     * Getter for the id of the imported hotel
+     * @return id of the hotel
+     */
+    public long getHotelId() {
+        return hotelId;
+    }
+}
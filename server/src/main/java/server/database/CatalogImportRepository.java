@@ -0,0 +1,7 @@
+package server.database;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface CatalogImportRepository extends JpaRepository<CatalogImport, String> {}
@@ -1,8 +1,61 @@
 package server.database;
 
 import commons.Hotel;
+import commons.HotelSummary;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
+import java.util.stream.Stream;
+
 @Repository
-public interface HotelRepository extends JpaRepository<Hotel, Long> {}
+public interface HotelRepository extends JpaRepository<Hotel, Long> {
+
+    /**
+     * Keyset page of hotels, ordered by id
+     * @param after only hotels with an id greater than this are returned
+     * @param pageable the page size, the offset is always 0
+     * @return the hotels following the given id
+     */
+    List<Hotel> findByIdGreaterThanOrderByIdAsc(long after, Pageable pageable);
+
+    /**
+     * Scrolls through all hotels, ordered by id. Must be consumed inside a transaction and closed afterwards.
+     * @return stream of all hotels
+     */
+    @Query("select h from Hotel h order by h.id")
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "256"))
+    Stream<Hotel> streamAllOrderedById();
+
+    /**
+     * Keyset page of hotel summaries, ordered by id, without touching the facilities
+     * @param after only hotels with an id greater than this are returned
+     * @param pageable the page size, or unpaged for all hotels
+     * @return the summaries of the hotels following the given id
+     */
+    @Query("select new commons.HotelSummary(h.id, h.name, h.stars) from Hotel h where h.id > :after order by h.id")
+    List<HotelSummary> findSummaries(@Param("after") long after, Pageable pageable);
+
+    /**
+     * Facility names of the hotels in an id range
+     * @param after lower bound of the range, exclusive
+     * @param last upper bound of the range, inclusive
+     * @return pairs of hotel id and facility name
+     */
+    @Query("select h.id, f.name from Hotel h join h.facilities f where h.id > :after and h.id <= :last")
+    List<Object[]> findFacilityNames(@Param("after") long after, @Param("last") long last);
+
+    /**
+     * Filters a list of ids down to the ids of existing hotels
+     * @param ids the ids to check
+     * @return the ids that belong to a hotel
+     */
+    @Query("select h.id from Hotel h where h.id in :ids")
+    List<Long> findExistingIds(@Param("ids") List<Long> ids);
+}
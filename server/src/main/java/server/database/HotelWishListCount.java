@@ -0,0 +1,52 @@
+package server.database;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+
+import java.time.Instant;
+
+/**
+ * Number of wishlists that contain a hotel, as last flushed from the in-memory popularity counters
+ */
+@Entity
+@Table(name = "hotel_wishlist_count")
+public class HotelWishListCount {
+    @Id
+    @Column(name = "hotel_id")
+    private long hotelId;
+    @Column(name = "wishlist_count", nullable = false)
+    private long wishListCount;
+    @Column(name = "updated_at", nullable = false)
+    private Instant updatedAt;
+
+    /**
+     * Default constructor, for JPA
+     */
+    public HotelWishListCount() {}
+
+    /**
+     * Getter for the id of the hotel
+     * @return id of the hotel
+     */
+    public long getHotelId() {
+        return hotelId;
+    }
+
+    /**
+     * Getter for the number of wishlists that contain the hotel
+     * @return number of wishlists
+     */
+    public long getWishListCount() {
+        return wishListCount;
+    }
+
+    /**
+     * Getter for the time the count was last written
+     * @return time of the last flush of the count
+     */
+    public Instant getUpdatedAt() {
+        return updatedAt;
+    }
+}
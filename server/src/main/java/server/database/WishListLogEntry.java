@@ -0,0 +1,104 @@
+package server.database;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
+
+/**
+ * Row of the change log of the wishlists of a person, written and read with JDBC by WishListChangeLog.
+ * Mapped so the table is created with the rest of the schema.
+ */
+@Entity
+@Table(name = "wish_list_log",
+        uniqueConstraints = @UniqueConstraint(name = "uk_wish_list_log_sequence", columnNames = {"username", "change_sequence"}))
+public class WishListLogEntry {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private long id;
+    @Column(nullable = false)
+    private String username;
+    @Column(name = "change_sequence", nullable = false)
+    private long changeSequence;
+    @Column(name = "wish_list_id", nullable = false)
+    private long wishListId;
+    // name of a WishListChange.Type, a plain string so new types need no schema change
+    @Column(nullable = false, length = 32)
+    private String type;
+    @Column(name = "hotel_id")
+    private Long hotelId;
+    private Integer position;
+    private String name;
+
+    /**
+     * Default constructor, for JPA
+     */
+    public WishListLogEntry() {}
+
+    /**
+     * Getter for the id of the row
+     * @return id of the row
+     */
+    public long getId() {
+        return id;
+    }
+
+    /**
+     * Getter for the username of the owner of the changed wishlist
+     * @return username of the owner
+     */
+    public String getUsername() {
+        return username;
+    }
+
+    /**
+     * Getter for the position of the change in the change log of the person
+     * @return the sequence number of the change
+     */
+    public long getChangeSequence() {
+        return changeSequence;
+    }
+
+    /**
+     * Getter for the id of the changed wishlist
+     * @return id of the changed wishlist
+     */
+    public long getWishListId() {
+        return wishListId;
+    }
+
+    /**
+     * Getter for what changed
+     * @return name of the type of the change
+     */
+    public String getType() {
+        return type;
+    }
+
+    /**
+     * Getter for the id of the added, removed or moved hotel
+     * @return id of the hotel, null for other changes
+     */
+    public Long getHotelId() {
+        return hotelId;
+    }
+
+    /**
+     * Getter for the new position of a moved hotel
+     * @return the position, null for other changes
+     */
+    public Integer getPosition() {
+        return position;
+    }
+
+    /**
+     * Getter for the name of a created or renamed wishlist
+     * @return the name, null for other changes
+     */
+    public String getName() {
+        return name;
+    }
+}
@@ -1,12 +1,55 @@
 package server.database;
 
 import commons.WishList;
+import commons.WishListSummary;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface WishListRepository extends JpaRepository<WishList, Long> {
     Optional<WishList> findBySharingCode(String code);
+
+    /**
+     * Finds a wishlist by its sharing key, using the unique index on the key
+     * @param sharingKey the binary sharing key
+     * @return the wishlist
+     */
+    Optional<WishList> findBySharingKey(byte[] sharingKey);
+
+    /**
+     * Finds a wishlist by its owner and name, using the unique (owner, name) key
+     * @param username username of the owner
+     * @param name name of the wishlist
+     * @return the wishlist, without its hotels
+     */
+    Optional<WishList> findByOwnerUsernameAndName(String username, String name);
+
+    /**
+     * Checks whether a person has a wishlist with the given name
+     * @param username username of the owner
+     * @param name name of the wishlist
+     * @return true if the person has a wishlist with this name
+     */
+    boolean existsByOwnerUsernameAndName(String username, String name);
+
+    /**
+     * Names and hotel counts of the wishlists of a person, without loading the hotels
+     * @param username username of the owner
+     * @return summaries of the wishlists, in order of creation
+     */
+    @Query("select new commons.WishListSummary(w.name, w.sharingCode, w.sharingKey, size(w.hotels)) from WishList w " +
+            "where w.owner.username = :username order by w.id")
+    List<WishListSummary> findSummariesByOwner(@Param("username") String username);
+
+    /**
+     * Number of wishlists that contain each hotel, for hotels in at least one wishlist
+     * @return pairs of hotel id and count
+     */
+    @Query(value = "select hotel_id, count(*) from wishlist_hotel group by hotel_id", nativeQuery = true)
+    List<Object[]> countWishListsPerHotel();
 }
@@ -0,0 +1,229 @@
+package server.services;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Function;
+
+/**
+ * Thread safe in-process LRU cache with a maximum size and a time to live per entry.
+ * Values are loaded on a miss through the loader passed to {@link #get}.
+ * @param <K> type of the keys
+ * @param <V> type of the values
+ */
+public class BoundedCache<K, V> {
+    private final int maxSize;
+    private final long ttlNanos;
+    private final LinkedHashMap<K, Entry<V>> entries = new LinkedHashMap<>(16, 0.75f, true);
+
+    private long hits;
+    private long misses;
+    private long evictions;
+    private long invalidations;
+
+    /**
+     * Constructs a BoundedCache with the given limits
+     * @param maxSize maximum number of entries, the least recently used entry is evicted beyond it
+     * @param ttl time after which an entry is no longer served
+     */
+    public BoundedCache(int maxSize, Duration ttl) {
+        this.maxSize = maxSize;
+        this.ttlNanos = ttl.toNanos();
+    }
+
+    /**
+     * Gets the value for a key, loading and caching it on a miss. Values for which the loader returns
+     * empty are not cached.
+     * @param key the key to look up
+     * @param loader loads the value on a miss
+     * @return the cached or loaded value
+     */
+    public Optional<V> get(K key, Function<? super K, Optional<V>> loader) {
+        long invalidationsBeforeLoad;
+        synchronized (this) {
+            Entry<V> entry = entries.get(key);
+            if (entry != null && entry.expiresAt - System.nanoTime() > 0) {
+                hits++;
+                return Optional.of(entry.value);
+            }
+            if (entry != null) {
+                entries.remove(key);
+                evictions++;
+            }
+            misses++;
+            invalidationsBeforeLoad = invalidations;
+        }
+
+        Optional<V> loaded = loader.apply(key);
+
+        synchronized (this) {
+            // a write that happened while loading may have made the loaded value stale
+            if (loaded.isPresent() && invalidations == invalidationsBeforeLoad) {
+                entries.put(key, new Entry<>(loaded.get(), System.nanoTime() + ttlNanos));
+                evictOverflow();
+            }
+        }
+        return loaded;
+    }
+
+    /**
+     * Gets the values for several keys, loading all misses with a single call of the loader.
+     * Keys for which the loader returns no value are left out of the result.
+     * @param keys the keys to look up
+     * @param loader loads the values of the missing keys
+     * @return the cached or loaded values by key
+     */
+    public Map<K, V> getAll(Collection<K> keys, Function<? super Collection<K>, Map<K, V>> loader) {
+        Map<K, V> result = new HashMap<>();
+        List<K> missing = new ArrayList<>();
+        long invalidationsBeforeLoad;
+        synchronized (this) {
+            long now = System.nanoTime();
+            for (K key : keys) {
+                Entry<V> entry = entries.get(key);
+                if (entry != null && entry.expiresAt - now > 0) {
+                    hits++;
+                    result.put(key, entry.value);
+                } else {
+                    if (entry != null) {
+                        entries.remove(key);
+                        evictions++;
+                    }
+                    misses++;
+                    missing.add(key);
+                }
+            }
+            invalidationsBeforeLoad = invalidations;
+        }
+        if (missing.isEmpty()) {
+            return result;
+        }
+
+        Map<K, V> loaded = loader.apply(missing);
+        result.putAll(loaded);
+
+        synchronized (this) {
+            if (invalidations == invalidationsBeforeLoad) {
+                long expiresAt = System.nanoTime() + ttlNanos;
+                loaded.forEach((key, value) -> entries.put(key, new Entry<>(value, expiresAt)));
+                evictOverflow();
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Stores a value that is known to be current, replacing any cached value
+     * @param key the key
+     * @param value the current value
+     */
+    public synchronized void put(K key, V value) {
+        entries.put(key, new Entry<>(value, System.nanoTime() + ttlNanos));
+        evictOverflow();
+    }
+
+    /**
+     * Checks whether a key has a cached value that has not expired, without counting a hit or a miss
+     * @param key the key
+     * @return true if the key has a cached value
+     */
+    public synchronized boolean contains(K key) {
+        Entry<V> entry = entries.get(key);
+        return entry != null && entry.expiresAt - System.nanoTime() > 0;
+    }
+
+    /**
+     * Removes the entry for a key
+     * @param key the key to invalidate
+     */
+    public synchronized void invalidate(K key) {
+        invalidations++;
+        entries.remove(key);
+    }
+
+    /**
+     * Removes all entries
+     */
+    public synchronized void clear() {
+        invalidations++;
+        entries.clear();
+    }
+
+    /**
+     * Getter for a snapshot of the counters of the cache
+     * @return counters of the cache
+     */
+    public synchronized Stats getStats() {
+        return new Stats(entries.size(), hits, misses, evictions);
+    }
+
+    private void evictOverflow() {
+        Iterator<Map.Entry<K, Entry<V>>> iterator = entries.entrySet().iterator();
+        while (entries.size() > maxSize && iterator.hasNext()) {
+            iterator.next();
+            iterator.remove();
+            evictions++;
+        }
+    }
+
+    private record Entry<V>(V value, long expiresAt) {}
+
+    public static class Stats {
+        private final int size;
+        private final long hits;
+        private final long misses;
+        private final long evictions;
+
+        /**
+         * Constructs a Stats object with the given counters
+         * @param size number of cached entries
+         * @param hits number of lookups served from the cache
+         * @param misses number of lookups that had to load the value
+         * @param evictions number of entries dropped because of the size limit or their age
+         */
+        public Stats(int size, long hits, long misses, long evictions) {
+            this.size = size;
+            this.hits = hits;
+            this.misses = misses;
+            this.evictions = evictions;
+        }
+
+        /**
+         * Getter for the number of cached entries
+         * @return number of cached entries
+         */
+        public int getSize() {
+            return size;
+        }
+
+        /**
+         * Getter for the number of lookups served from the cache
+         * @return number of hits
+         */
+        public long getHits() {
+            return hits;
+        }
+
+        /**
+         * Getter for the number of lookups that had to load the value
+         * @return number of misses
+         */
+        public long getMisses() {
+            return misses;
+        }
+
+        /**
+         * Getter for the number of entries dropped because of the size limit or their age
+         * @return number of evictions
+         */
+        public long getEvictions() {
+            return evictions;
+        }
+    }
+}
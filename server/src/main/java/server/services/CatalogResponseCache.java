@@ -0,0 +1,222 @@
+package server.services;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import commons.Hotel;
+import commons.HotelPage;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.InvalidMediaTypeException;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import server.database.HotelRepository;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Keeps the serialized, and gzip compressed, bodies of the pages of the hotel listing per format, so they are
+ * built once per version of the catalog instead of once per request. The cache is dropped as soon as a
+ * request sees that the catalog changed. The whole listing is never held in memory, it is streamed instead.
+ */
+@Service
+public class CatalogResponseCache {
+    public static final MediaType SMILE = new MediaType("application", "x-jackson-smile");
+    private static final int STREAM_BUFFER_SIZE = 64 * 1024;
+
+    private final HotelService hotelService;
+    private final HotelRepository hotelRepository;
+    private final ContentVersions contentVersions;
+    private final ObjectMapper jsonMapper;
+    private final ObjectMapper smileMapper;
+    private final BoundedCache<Key, Body> bodies;
+    private String cachedVersion;
+
+    /**
+     * Constructor for CatalogResponseCache
+     * @param hotelService the hotel service, to scroll through the catalog
+     * @param hotelRepository the hotel repository, to read pages
+     * @param contentVersions the catalog version
+     * @param jsonMapper the object mapper used for JSON responses
+     * @param objectMapperBuilder the object mapper builder, used for the Smile mapper
+     * @param maxEntries the maximum number of cached bodies
+     */
+    public CatalogResponseCache(HotelService hotelService, HotelRepository hotelRepository, ContentVersions contentVersions,
+                                ObjectMapper jsonMapper, Jackson2ObjectMapperBuilder objectMapperBuilder,
+                                @Value("${hotel.response-cache.max-entries:256}") int maxEntries) {
+        this.hotelService = hotelService;
+        this.hotelRepository = hotelRepository;
+        this.contentVersions = contentVersions;
+        this.jsonMapper = jsonMapper;
+        this.smileMapper = objectMapperBuilder.factory(new SmileFactory()).build();
+        this.bodies = new BoundedCache<>(maxEntries, Duration.ofDays(1));
+    }
+
+    /**
+     * Builds the response for one page of the hotel listing from the cached body
+     * @param format JSON or Smile, see {@link #selectFormat(String)}
+     * @param gzip whether to send the body gzip compressed, see {@link #acceptsGzip(String)}
+     * @param after the cursor of the page
+     * @param limit the size of the page, must be positive
+     * @return the response with the cached body
+     */
+    public ResponseEntity<byte[]> respond(MediaType format, boolean gzip, long after, int limit) {
+        dropIfStale();
+        Body body = bodies.get(new Key(format, after, limit), k -> Optional.of(build(k))).orElseThrow();
+        ResponseEntity.BodyBuilder response = headers(format, gzip);
+        return response.body(gzip ? body.gzip : body.identity);
+    }
+
+    /**
+     * Builds the response for the whole hotel listing, which is written while the hotels are read instead of
+     * being cached, so memory use does not depend on the size of the catalog
+     * @param format JSON or Smile, see {@link #selectFormat(String)}
+     * @param gzip whether to send the body gzip compressed, see {@link #acceptsGzip(String)}
+     * @return the response that streams the listing
+     */
+    public ResponseEntity<StreamingResponseBody> stream(MediaType format, boolean gzip) {
+        ObjectMapper mapper = format.equals(SMILE) ? smileMapper : jsonMapper;
+        return headers(format, gzip).body(out -> {
+            if (gzip) {
+                GZIPOutputStream compressed = new GZIPOutputStream(out, STREAM_BUFFER_SIZE);
+                writeAll(mapper, compressed);
+                compressed.finish();
+            } else {
+                writeAll(mapper, out);
+            }
+        });
+    }
+
+    /**
+     * Getter for the ETag of the hotel listing in a format and encoding. Every representation has its own
+     * tag, as the bodies of the formats and of the encodings differ byte for byte.
+     * @param format JSON or Smile
+     * @param gzip whether the body is gzip compressed
+     * @return ETag of the current catalog in the given representation, without quotes
+     */
+    public String eTag(MediaType format, boolean gzip) {
+        return contentVersions.catalogETag() + (format.equals(SMILE) ? ".smile" : ".json") + (gzip ? ".gzip" : "");
+    }
+
+    /**
+     * Getter for the counters of the body cache
+     * @return counters of the body cache
+     */
+    public BoundedCache.Stats getStats() {
+        return bodies.getStats();
+    }
+
+    private synchronized void dropIfStale() {
+        String version = contentVersions.catalogETag();
+        if (!version.equals(cachedVersion)) {
+            bodies.clear();
+            cachedVersion = version;
+        }
+    }
+
+    private static ResponseEntity.BodyBuilder headers(MediaType format, boolean gzip) {
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .contentType(format)
+                .header(HttpHeaders.VARY, HttpHeaders.ACCEPT, HttpHeaders.ACCEPT_ENCODING);
+        return gzip ? response.header(HttpHeaders.CONTENT_ENCODING, "gzip") : response;
+    }
+
+    private void writeAll(ObjectMapper mapper, OutputStream out) throws IOException {
+        ObjectWriter writer = mapper.writerFor(Hotel.class);
+        try (JsonGenerator generator = mapper.getFactory().createGenerator(out)) {
+            // the servlet closes its own stream, and a gzip stream still has to be finished
+            generator.configure(JsonGenerator.Feature.AUTO_CLOSE_TARGET, false);
+            generator.writeStartArray();
+            hotelService.forEachHotel(hotel -> {
+                try {
+                    writer.writeValue(generator, hotel);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+            generator.writeEndArray();
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    private Body build(Key key) {
+        ObjectMapper mapper = key.format.equals(SMILE) ? smileMapper : jsonMapper;
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try {
+            List<Hotel> hotels = hotelRepository.findByIdGreaterThanOrderByIdAsc(key.after, PageRequest.of(0, key.limit));
+            Long next = hotels.size() == key.limit ? hotels.get(hotels.size() - 1).getId() : null;
+            mapper.writeValue(out, new HotelPage(hotels, next));
+            byte[] identity = out.toByteArray();
+            ByteArrayOutputStream compressed = new ByteArrayOutputStream(identity.length / 4 + 64);
+            try (GZIPOutputStream gzip = new GZIPOutputStream(compressed)) {
+                gzip.write(identity);
+            }
+            return new Body(identity, compressed.toByteArray());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Chooses between JSON and Smile for an Accept header, Smile only if it is preferred over JSON
+     * @param accept the Accept header
+     * @return JSON or Smile, null if neither is acceptable
+     */
+    public static MediaType selectFormat(String accept) {
+        List<MediaType> acceptable;
+        try {
+            acceptable = MediaType.parseMediaTypes(accept);
+        } catch (InvalidMediaTypeException e) {
+            acceptable = List.of(MediaType.ALL);
+        }
+        if (acceptable.isEmpty()) {
+            return MediaType.APPLICATION_JSON;
+        }
+        double json = 0;
+        double smile = 0;
+        for (MediaType mediaType : acceptable) {
+            if (mediaType.includes(MediaType.APPLICATION_JSON)) {
+                json = Math.max(json, mediaType.getQualityValue());
+            }
+            if (mediaType.equalsTypeAndSubtype(SMILE)) {
+                smile = Math.max(smile, mediaType.getQualityValue());
+            }
+        }
+        if (smile > json) {
+            return SMILE;
+        }
+        return json > 0 ? MediaType.APPLICATION_JSON : null;
+    }
+
+    /**
+     * Checks whether an Accept-Encoding header accepts gzip
+     * @param acceptEncoding the Accept-Encoding header
+     * @return true if gzip is listed and not refused with q=0
+     */
+    public static boolean acceptsGzip(String acceptEncoding) {
+        for (String coding : acceptEncoding.split(",")) {
+            String[] parts = coding.trim().split(";");
+            if (parts[0].trim().equalsIgnoreCase("gzip")) {
+                return parts.length == 1 || !parts[1].replace(" ", "").matches("q=0(\\.0*)?");
+            }
+        }
+        return false;
+    }
+
+    private record Key(MediaType format, long after, int limit) {}
+
+    private record Body(byte[] identity, byte[] gzip) {}
+}
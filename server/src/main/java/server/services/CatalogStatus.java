@@ -0,0 +1,110 @@
+package server.services;
+
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+
+/**
+ * Progress of the catalog load that runs in the background after startup
+ */
+@Component
+public class CatalogStatus {
+
+    public enum Phase { STARTING, IMPORTING, INDEXING, READY, FAILED }
+
+    private volatile Phase phase = Phase.STARTING;
+    private volatile long processedHotels;
+    private volatile Instant startedAt;
+    private volatile Instant finishedAt;
+    private volatile String error;
+
+    /**
+     * Marks the start of the import of the catalog file
+     */
+    public void importing() {
+        startedAt = Instant.now();
+        processedHotels = 0;
+        phase = Phase.IMPORTING;
+    }
+
+    /**
+     * Marks the start of the rebuild of the in-memory indexes
+     */
+    public void indexing() {
+        phase = Phase.INDEXING;
+    }
+
+    /**
+     * Marks the catalog as fully loaded
+     */
+    public void ready() {
+        finishedAt = Instant.now();
+        phase = Phase.READY;
+    }
+
+    /**
+     * Marks the catalog load as failed
+     * @param cause the reason of the failure
+     */
+    public void failed(Throwable cause) {
+        finishedAt = Instant.now();
+        error = cause.toString();
+        phase = Phase.FAILED;
+    }
+
+    /**
+     * Setter for the number of hotels read from the catalog file so far
+     * @param processedHotels number of hotels read so far
+     */
+    public void setProcessedHotels(long processedHotels) {
+        this.processedHotels = processedHotels;
+    }
+
+    /**
+     * Whether the catalog is loaded and the hotel endpoints can be served
+     * @return true if the catalog is ready
+     */
+    public boolean isReady() {
+        return phase == Phase.READY;
+    }
+
+    /**
+     * Getter for the current phase of the catalog load
+     * @return the current phase
+     */
+    public Phase getPhase() {
+        return phase;
+    }
+
+    /**
+     * Getter for the number of hotels read from the catalog file so far
+     * @return number of hotels read so far
+     */
+    public long getProcessedHotels() {
+        return processedHotels;
+    }
+
+    /**
+     * Getter for the time the catalog load started
+     * @return start of the load, null if it did not start yet
+     */
+    public Instant getStartedAt() {
+        return startedAt;
+    }
+
+    /**
+     * Getter for the time the catalog load finished
+     * @return end of the load, null if it is still running
+     */
+    public Instant getFinishedAt() {
+        return finishedAt;
+    }
+
+    /**
+     * Getter for the reason the catalog load failed
+     * @return the error, null if the load did not fail
+     */
+    public String getError() {
+        return error;
+    }
+}
@@ -0,0 +1,61 @@
+package server.services;
+
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Version counters for the hotel catalog and for shared wishlists, used to derive ETags without loading
+ * or serializing anything. The counters live in memory only, so every tag also contains the start time of
+ * this server, which invalidates all tags handed out before a restart. Wishlist versions are kept in a fixed
+ * number of stripes chosen by sharing code, so memory does not grow with the number of wishlists; a change
+ * also changes the tags of the wishlists that share its stripe, which only costs them a full response.
+ */
+@Component
+public class ContentVersions {
+    private static final int WISHLIST_STRIPES = 1 << 14;
+
+    private final long epoch = System.currentTimeMillis();
+    private final AtomicLong catalogVersion = new AtomicLong();
+    private final AtomicLongArray wishListVersions = new AtomicLongArray(WISHLIST_STRIPES);
+
+    /**
+     * Marks the hotel catalog as changed
+     */
+    public void catalogChanged() {
+        catalogVersion.incrementAndGet();
+    }
+
+    /**
+     * Marks a wishlist as changed
+     * @param sharingCode sharing code of the changed wishlist
+     */
+    public void wishListChanged(String sharingCode) {
+        if (sharingCode != null) {
+            wishListVersions.incrementAndGet(stripe(sharingCode));
+        }
+    }
+
+    /**
+     * Getter for the ETag of everything that is derived from the hotel catalog only
+     * @return ETag of the current catalog, without quotes
+     */
+    public String catalogETag() {
+        return "c" + epoch + "." + catalogVersion.get();
+    }
+
+    /**
+     * Getter for the ETag of a shared wishlist. Wishlists embed hotels, so the tag also changes with the catalog.
+     * @param sharingCode sharing code of the wishlist
+     * @return ETag of the current version of the wishlist, without quotes
+     */
+    public String sharedWishListETag(String sharingCode) {
+        return "w" + epoch + "." + catalogVersion.get() + "." + wishListVersions.get(stripe(sharingCode));
+    }
+
+    private static int stripe(String sharingCode) {
+        int h = sharingCode.hashCode();
+        return (h ^ (h >>> 16)) & (WISHLIST_STRIPES - 1);
+    }
+}
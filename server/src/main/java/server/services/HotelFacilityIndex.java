@@ -0,0 +1,152 @@
+package server.services;
+
+import commons.Hotel;
+import commons.HotelFacility;
+import org.roaringbitmap.FastAggregation;
+import org.roaringbitmap.IntIterator;
+import org.roaringbitmap.RoaringBitmap;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-memory index of hotel ids, with one compressed bitmap per facility name and one per number of stars.
+ * Filters on facilities and stars are answered with bitmap operations, without touching the database.
+ */
+@Component
+public class HotelFacilityIndex {
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final RoaringBitmap allHotels = new RoaringBitmap();
+    private final Map<String, RoaringBitmap> byFacility = new HashMap<>();
+    private final Map<Integer, RoaringBitmap> byStars = new HashMap<>();
+
+    /**
+     * Removes all hotels from the index
+     */
+    public void clear() {
+        lock.writeLock().lock();
+        try {
+            allHotels.clear();
+            byFacility.clear();
+            byStars.clear();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Adds a hotel to the index, or replaces the entry of a hotel that is already indexed
+     * @param hotel the hotel to index
+     */
+    public void put(Hotel hotel) {
+        int key = key(hotel.getId());
+        lock.writeLock().lock();
+        try {
+            removeKey(key);
+            allHotels.add(key);
+            byStars.computeIfAbsent(hotel.getStars(), stars -> new RoaringBitmap()).add(key);
+            if (hotel.getFacilities() != null) {
+                for (HotelFacility facility : hotel.getFacilities()) {
+                    byFacility.computeIfAbsent(normalize(facility.getName()), name -> new RoaringBitmap()).add(key);
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Removes a hotel from the index
+     * @param id id of the hotel to remove
+     */
+    public void remove(long id) {
+        int key = key(id);
+        lock.writeLock().lock();
+        try {
+            removeKey(key);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Finds the ids of the hotels matching the given filters, in ascending order
+     * @param facilities facility names to filter on, empty for no facility filter
+     * @param matchAll true if a hotel needs all the facilities, false if any of them is enough
+     * @param stars accepted numbers of stars, empty for no stars filter
+     * @param after only ids greater than this are returned
+     * @param limit maximum number of ids to return
+     * @return the matching hotel ids
+     */
+    public List<Long> search(Collection<String> facilities, boolean matchAll, Collection<Integer> stars, long after, int limit) {
+        lock.readLock().lock();
+        try {
+            RoaringBitmap result = allHotels.clone();
+            if (!facilities.isEmpty()) {
+                List<RoaringBitmap> bitmaps = new ArrayList<>();
+                for (String facility : facilities) {
+                    RoaringBitmap bitmap = byFacility.get(normalize(facility));
+                    if (bitmap != null) {
+                        bitmaps.add(bitmap);
+                    } else if (matchAll) {
+                        return List.of();
+                    }
+                }
+                if (matchAll) {
+                    bitmaps.forEach(result::and);
+                } else {
+                    result.and(FastAggregation.or(bitmaps.iterator()));
+                }
+            }
+            if (!stars.isEmpty()) {
+                List<RoaringBitmap> bitmaps = new ArrayList<>();
+                for (Integer star : stars) {
+                    RoaringBitmap bitmap = byStars.get(star);
+                    if (bitmap != null) {
+                        bitmaps.add(bitmap);
+                    }
+                }
+                result.and(FastAggregation.or(bitmaps.iterator()));
+            }
+            if (after >= 0) {
+                result.remove(0L, after + 1);
+            }
+
+            List<Long> ids = new ArrayList<>(Math.min(limit, result.getCardinality()));
+            IntIterator iterator = result.getIntIterator();
+            while (iterator.hasNext() && ids.size() < limit) {
+                ids.add(Integer.toUnsignedLong(iterator.next()));
+            }
+            return ids;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void removeKey(int key) {
+        if (!allHotels.contains(key)) {
+            return;
+        }
+        allHotels.remove(key);
+        byStars.values().forEach(bitmap -> bitmap.remove(key));
+        byFacility.values().forEach(bitmap -> bitmap.remove(key));
+    }
+
+    private static int key(long id) {
+        if (id < 0 || id > 0xFFFFFFFFL) {
+            throw new IllegalArgumentException("Hotel id out of range for the facility index: " + id);
+        }
+        return (int) id;
+    }
+
+    private static String normalize(String facility) {
+        return facility.trim().toLowerCase(Locale.ROOT);
+    }
+}
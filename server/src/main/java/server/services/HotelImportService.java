@@ -0,0 +1,448 @@
+package server.services;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import commons.Hotel;
+import commons.HotelFacility;
+import commons.WishListChange;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.function.LongConsumer;
+
+/**
+ * Imports hotels from a JSON document, either {"hotels": [...]} or a bare array, without reading the
+ * whole document into memory. Hotels are parsed one at a time and written in JDBC batches, keeping the
+ * ids from the document.
+ */
+@Service
+public class HotelImportService {
+    private static final String MERGE_FACILITY = "MERGE INTO hotel_facility (name) KEY (name) VALUES (?)";
+    private static final String MERGE_HOTEL =
+            "MERGE INTO hotel (id, name, stars, page_url, photo) KEY (id) VALUES (?, ?, ?, ?, ?)";
+    private static final String DELETE_HOTEL_FACILITIES = "DELETE FROM hotel_to_facility WHERE hotel_id = ?";
+    private static final String INSERT_HOTEL_FACILITY = "INSERT INTO hotel_to_facility (hotel_id, facility_name) VALUES (?, ?)";
+    private static final String DELETE_HOTEL_FROM_WISHLISTS = "DELETE FROM wishlist_hotel WHERE hotel_id = ?";
+    private static final String SELECT_WISHLISTS_OF_HOTELS = "SELECT w.owner_username, w.id, wh.hotel_id "
+            + "FROM wishlist_hotel wh JOIN wish_list w ON w.id = wh.wishlist_id WHERE wh.hotel_id IN (%s) "
+            + "ORDER BY w.id, wh.position_index";
+    private static final String DELETE_HOTEL = "DELETE FROM hotel WHERE id = ?";
+    private static final String SELECT_HOTEL_ROWS = "SELECT h.id, h.name, h.stars, h.page_url, h.photo, f.facility_name "
+            + "FROM hotel h LEFT JOIN hotel_to_facility f ON f.hotel_id = h.id ORDER BY h.id, f.facility_name";
+    private static final String SELECT_IMPORTED_IDS = "SELECT hotel_id FROM catalog_import_hotel WHERE source = ?";
+    private static final String DELETE_IMPORTED_IDS = "DELETE FROM catalog_import_hotel WHERE source = ?";
+    private static final String INSERT_IMPORTED_ID = "INSERT INTO catalog_import_hotel (source, hotel_id) VALUES (?, ?)";
+    private static final String SELECT_MAX_HOTEL_ID = "SELECT COALESCE(MAX(id), 0) FROM hotel";
+    private static final String SELECT_NEXT_HOTEL_ID =
+            "SELECT BASE_VALUE FROM INFORMATION_SCHEMA.SEQUENCES WHERE SEQUENCE_NAME = 'HOTEL_SEQ'";
+    // Hibernate hands out ids in blocks of 50, keep the next block clear of the imported ids
+    private static final int ID_ALLOCATION_SIZE = 50;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private ObjectMapper objectMapper;
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+    @Autowired
+    private WishListChangeLog changeLog;
+    @Value("${hotel.import.batch-size:1000}")
+    private int batchSize;
+
+    /**
+     * Imports all hotels of a JSON document. Hotels that already exist are overwritten, other hotels are kept.
+     * Hotels without a positive id, and repeated ids after their first hotel, are skipped and counted.
+     * @param inputStream the document, it is not closed
+     * @return counters of the import
+     * @throws IOException if the document cannot be read or is not a hotel list
+     */
+    public Result importHotels(InputStream inputStream) throws IOException {
+        long start = System.nanoTime();
+        Batch batch = new Batch(loadStoredFacilities(), null, read -> {});
+        readDocument(inputStream, batch);
+        batch.flush();
+        advanceIdSequence();
+        return new Result(batch.written, 0, 0, batch.skipped, batch.newFacilities, (System.nanoTime() - start) / 1_000_000);
+    }
+
+    /**
+     * Brings the hotel table up to date with a new version of a catalog file. Only hotels that are new or differ
+     * from the stored version are written. Hotels that were in the previous import of the same file and are
+     * missing now are deleted, also from wishlists; hotels created in other ways are kept. Their removal from
+     * wishlists is recorded in the change log of the owners, so wishlist syncs pass it on. Hotels without a
+     * positive id, and repeated ids after their first hotel, are skipped and counted.
+     * @param source name of the catalog file, the ids it held are kept for the next sync
+     * @param inputStream the document, it is not closed
+     * @param progress receives the number of hotels read so far, after every batch
+     * @return counters of the synchronisation
+     * @throws IOException if the document cannot be read or is not a hotel list
+     */
+    public Result syncHotels(String source, InputStream inputStream, LongConsumer progress) throws IOException {
+        long start = System.nanoTime();
+        Set<Long> previouslyImported = new HashSet<>(jdbcTemplate.queryForList(SELECT_IMPORTED_IDS, Long.class, source));
+        Batch batch = new Batch(loadStoredFacilities(), loadFingerprints(), progress);
+        readDocument(inputStream, batch);
+        batch.flush();
+        progress.accept(batch.read);
+
+        List<Object[]> removed = batch.stored.keySet().stream()
+                .filter(previouslyImported::contains)
+                .map(id -> new Object[] {id})
+                .toList();
+        for (int from = 0; from < removed.size(); from += batchSize) {
+            List<Object[]> chunk = removed.subList(from, Math.min(from + batchSize, removed.size()));
+            new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+                logRemovalFromWishLists(chunk);
+                jdbcTemplate.batchUpdate(DELETE_HOTEL_FROM_WISHLISTS, chunk);
+                jdbcTemplate.batchUpdate(DELETE_HOTEL_FACILITIES, chunk);
+                jdbcTemplate.batchUpdate(DELETE_HOTEL, chunk);
+            });
+        }
+        rememberImportedIds(source, batch.ids);
+        advanceIdSequence();
+        return new Result(batch.written, removed.size(), batch.unchanged, batch.skipped, batch.newFacilities,
+                (System.nanoTime() - start) / 1_000_000);
+    }
+
+    /**
+     * Replaces the ids of the hotels of the previous import of a file by those of this import
+     * @param source name of the catalog file
+     * @param ids ids of the hotels in the file
+     */
+    private void rememberImportedIds(String source, Set<Long> ids) {
+        List<Object[]> rows = ids.stream().map(id -> new Object[] {source, id}).toList();
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            jdbcTemplate.update(DELETE_IMPORTED_IDS, source);
+            for (int from = 0; from < rows.size(); from += batchSize) {
+                jdbcTemplate.batchUpdate(INSERT_IMPORTED_ID, rows.subList(from, Math.min(from + batchSize, rows.size())));
+            }
+        });
+    }
+
+    /**
+     * Appends a removal to the change log of the owner of every wishlist that contains one of the hotels
+     * @param hotelIds rows with the id of a hotel that is about to be deleted
+     */
+    private void logRemovalFromWishLists(List<Object[]> hotelIds) {
+        String sql = String.format(SELECT_WISHLISTS_OF_HOTELS, String.join(", ", Collections.nCopies(hotelIds.size(), "?")));
+        // owners in a fixed order, so imports running at the same time lock them in the same order
+        Map<String, List<WishListChange>> changes = new TreeMap<>();
+        jdbcTemplate.query(sql, resultSet -> {
+            String owner = resultSet.getString(1);
+            if (owner != null) {
+                changes.computeIfAbsent(owner, username -> new ArrayList<>())
+                        .add(WishListChange.hotelRemoved(resultSet.getLong(2), resultSet.getLong(3)));
+            }
+        }, hotelIds.stream().map(row -> row[0]).toArray());
+        changes.forEach(changeLog::append);
+    }
+
+    private void readDocument(InputStream inputStream, Batch batch) throws IOException {
+        try (JsonParser parser = objectMapper.getFactory().createParser(inputStream)) {
+            parser.disable(JsonParser.Feature.AUTO_CLOSE_SOURCE);
+            JsonToken token = parser.nextToken();
+            if (token == JsonToken.START_ARRAY) {
+                readHotels(parser, batch);
+            } else if (token == JsonToken.START_OBJECT) {
+                while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                    String field = parser.currentName();
+                    if (parser.nextToken() == JsonToken.START_ARRAY && field.equals("hotels")) {
+                        readHotels(parser, batch);
+                    } else {
+                        parser.skipChildren();
+                    }
+                }
+            } else {
+                throw new IOException("Expected a hotel list but found " + token);
+            }
+        }
+    }
+
+    private void readHotels(JsonParser parser, Batch batch) throws IOException {
+        while (parser.nextToken() == JsonToken.START_OBJECT) {
+            batch.add(objectMapper.readValue(parser, Hotel.class));
+        }
+    }
+
+    private Set<String> loadStoredFacilities() {
+        return new HashSet<>(jdbcTemplate.queryForList("SELECT name FROM hotel_facility", String.class));
+    }
+
+    /**
+     * Computes the fingerprint of every stored hotel, reading the rows in id order
+     * @return fingerprints by hotel id
+     */
+    private Map<Long, Long> loadFingerprints() {
+        Map<Long, Long> fingerprints = new HashMap<>();
+        StoredHotel[] current = {null};
+        jdbcTemplate.query(SELECT_HOTEL_ROWS, resultSet -> {
+            long id = resultSet.getLong(1);
+            if (current[0] == null || current[0].id != id) {
+                if (current[0] != null) {
+                    fingerprints.put(current[0].id, current[0].fingerprint());
+                }
+                current[0] = new StoredHotel(id, resultSet.getString(2), resultSet.getInt(3),
+                        resultSet.getString(4), resultSet.getString(5));
+            }
+            String facility = resultSet.getString(6);
+            if (facility != null) {
+                current[0].facilities.add(facility);
+            }
+        });
+        if (current[0] != null) {
+            fingerprints.put(current[0].id, current[0].fingerprint());
+        }
+        return fingerprints;
+    }
+
+    private static long fingerprint(Hotel hotel) {
+        List<String> facilities = new ArrayList<>();
+        if (hotel.getFacilities() != null) {
+            hotel.getFacilities().forEach(facility -> facilities.add(facility.getName()));
+        }
+        return fingerprint(hotel.getName(), hotel.getStars(), hotel.getPage_url(), hotel.getPhoto(), facilities);
+    }
+
+    /**
+     * 64-bit FNV-1a hash of the stored columns of a hotel, independent of the order of its facilities
+     */
+    private static long fingerprint(String name, int stars, String pageUrl, String photo, List<String> facilities) {
+        facilities.sort(null);
+        String content = String.join("\0", Objects.toString(name), Integer.toString(stars),
+                Objects.toString(pageUrl), Objects.toString(photo), String.join("\1", facilities));
+        long hash = 0xcbf29ce484222325L;
+        for (byte b : content.getBytes(StandardCharsets.UTF_8)) {
+            hash ^= b & 0xff;
+            hash *= 0x100000001b3L;
+        }
+        return hash;
+    }
+
+    /**
+     * Moves the hotel id sequence past every stored hotel and its own current value, so it is never moved
+     * back, and skips a whole allocation block, so ids Hibernate already holds in memory are not handed out again.
+     */
+    private void advanceIdSequence() {
+        long maxId = jdbcTemplate.queryForObject(SELECT_MAX_HOTEL_ID, Long.class);
+        Long nextId = jdbcTemplate.queryForObject(SELECT_NEXT_HOTEL_ID, Long.class);
+        long next = nextId == null ? 1 : nextId;
+        jdbcTemplate.execute("ALTER SEQUENCE hotel_seq RESTART WITH " + (Math.max(next, maxId + 1) + ID_ALLOCATION_SIZE));
+    }
+
+    /**
+     * Columns of a stored hotel, collected from its rows
+     */
+    private static class StoredHotel {
+        private final long id;
+        private final String name;
+        private final int stars;
+        private final String pageUrl;
+        private final String photo;
+        private final List<String> facilities = new ArrayList<>();
+
+        StoredHotel(long id, String name, int stars, String pageUrl, String photo) {
+            this.id = id;
+            this.name = name;
+            this.stars = stars;
+            this.pageUrl = pageUrl;
+            this.photo = photo;
+        }
+
+        long fingerprint() {
+            return HotelImportService.fingerprint(name, stars, pageUrl, photo, facilities);
+        }
+    }
+
+    private class Batch {
+        private final Set<String> storedFacilities;
+        private final Map<Long, Long> stored;
+        private final LongConsumer progress;
+        private final List<Hotel> pendingHotels = new ArrayList<>();
+        private final List<String> pendingFacilities = new ArrayList<>();
+        // ids of every hotel read from the document
+        private final Set<Long> ids = new HashSet<>();
+        private long read;
+        private long written;
+        private long unchanged;
+        private long skipped;
+        private long newFacilities;
+
+        /**
+         * @param storedFacilities facility names that already exist, new names are added while reading
+         * @param stored fingerprints of the stored hotels, null to write every hotel. Every hotel read
+         *               is removed from it, so afterwards it only holds the hotels missing from the document.
+         * @param progress receives the number of hotels read so far
+         */
+        Batch(Set<String> storedFacilities, Map<Long, Long> stored, LongConsumer progress) {
+            this.storedFacilities = storedFacilities;
+            this.stored = stored;
+            this.progress = progress;
+        }
+
+        void add(Hotel hotel) {
+            if (++read % batchSize == 0) {
+                progress.accept(read);
+            }
+            // a missing id reads as 0, and every such hotel would overwrite the same row, as would repeated ids
+            if (hotel.getId() <= 0 || !ids.add(hotel.getId())) {
+                skipped++;
+                return;
+            }
+            if (stored != null) {
+                Long storedFingerprint = stored.remove(hotel.getId());
+                if (storedFingerprint != null && storedFingerprint == fingerprint(hotel)) {
+                    unchanged++;
+                    return;
+                }
+            }
+            List<HotelFacility> facilities = hotel.getFacilities() == null ? List.of() : hotel.getFacilities();
+            for (HotelFacility facility : facilities) {
+                if (storedFacilities.add(facility.getName())) {
+                    pendingFacilities.add(facility.getName());
+                }
+            }
+            pendingHotels.add(hotel);
+            if (pendingHotels.size() >= batchSize) {
+                flush();
+            }
+        }
+
+        void flush() {
+            if (pendingHotels.isEmpty() && pendingFacilities.isEmpty()) {
+                return;
+            }
+            List<Object[]> hotelRows = new ArrayList<>(pendingHotels.size());
+            List<Object[]> hotelIds = new ArrayList<>(pendingHotels.size());
+            List<Object[]> facilityRows = new ArrayList<>();
+            for (Hotel hotel : pendingHotels) {
+                hotelRows.add(new Object[] {hotel.getId(), hotel.getName(), hotel.getStars(), hotel.getPage_url(), hotel.getPhoto()});
+                hotelIds.add(new Object[] {hotel.getId()});
+                if (hotel.getFacilities() != null) {
+                    for (HotelFacility facility : hotel.getFacilities()) {
+                        facilityRows.add(new Object[] {hotel.getId(), facility.getName()});
+                    }
+                }
+            }
+            List<Object[]> newFacilityRows = pendingFacilities.stream().map(name -> new Object[] {name}).toList();
+
+            new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+                jdbcTemplate.batchUpdate(MERGE_FACILITY, newFacilityRows);
+                jdbcTemplate.batchUpdate(MERGE_HOTEL, hotelRows);
+                jdbcTemplate.batchUpdate(DELETE_HOTEL_FACILITIES, hotelIds);
+                jdbcTemplate.batchUpdate(INSERT_HOTEL_FACILITY, facilityRows);
+            });
+            written += pendingHotels.size();
+            newFacilities += pendingFacilities.size();
+            pendingHotels.clear();
+            pendingFacilities.clear();
+        }
+    }
+
+    public static class Result {
+        private final long written;
+        private final long deleted;
+        private final long unchanged;
+        private final long skipped;
+        private final long newFacilities;
+        private final long millis;
+
+        /**
+         * Constructs a Result object with the given counters
+         * @param written number of inserted or updated hotels
+         * @param deleted number of deleted hotels
+         * @param unchanged number of hotels that were skipped because they did not change
+         * @param skipped number of hotels that were skipped because their id was missing, not positive or repeated
+         * @param newFacilities number of facilities that did not exist before the import
+         * @param millis duration of the import in milliseconds
+         */
+        public Result(long written, long deleted, long unchanged, long skipped, long newFacilities, long millis) {
+            this.written = written;
+            this.deleted = deleted;
+            this.unchanged = unchanged;
+            this.skipped = skipped;
+            this.newFacilities = newFacilities;
+            this.millis = millis;
+        }
+
+        /**
+         * Getter for the number of inserted or updated hotels
+         * @return number of written hotels
+         */
+        public long getWritten() {
+            return written;
+        }
+
+        /**
+         * Getter for the number of deleted hotels
+         * @return number of deleted hotels
+         */
+        public long getDeleted() {
+            return deleted;
+        }
+
+        /**
+         * Getter for the number of hotels that were skipped because they did not change
+         * @return number of unchanged hotels
+         */
+        public long getUnchanged() {
+            return unchanged;
+        }
+
+        /**
+         * Getter for the number of hotels that were skipped because their id was missing, not positive or repeated
+         * @return number of skipped hotels
+         */
+        public long getSkipped() {
+            return skipped;
+        }
+
+        /**
+         * Getter for the number of facilities that did not exist before the import
+         * @return number of new facilities
+         */
+        public long getNewFacilities() {
+            return newFacilities;
+        }
+
+        /**
+         * Getter for the duration of the import
+         * @return duration of the import in milliseconds
+         */
+        public long getMillis() {
+            return millis;
+        }
+
+        /**
+         * Method to get the string representation of the object
+         * @return string representation of the object
+         */
+        @Override
+        public String toString() {
+            return "Result{" +
+                    "written=" + written +
+                    ", deleted=" + deleted +
+                    ", unchanged=" + unchanged +
+                    ", skipped=" + skipped +
+                    ", newFacilities=" + newFacilities +
+                    ", millis=" + millis +
+                    '}';
+        }
+    }
+}
@@ -0,0 +1,178 @@
+package server.services;
+
+import commons.FacilityDictionary;
+import commons.Hotel;
+import commons.HotelFacility;
+import commons.HotelRanking;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Collectors;
+
+/**
+ * Hotels kept in sorted order by stars, by the number of wishlists that contain them and by a weighted score
+ * of both. The orders are updated on every change, so a top N query only walks the head of a sorted set.
+ * Facilities are matched with a bitmask, and by name for the facilities that do not fit in it.
+ */
+@Component
+public class HotelLeaderboard {
+
+    public enum Metric { STARS, WISHLISTED, SCORE }
+
+    private static final Comparator<Entry> BY_ID = Comparator.comparingLong(Entry::id);
+
+    private final double starsWeight;
+    private final double wishListWeight;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<Long, Entry> entries = new HashMap<>();
+    private final Map<Long, Long> wishListCounts = new HashMap<>();
+    private final Map<Metric, NavigableSet<Entry>> boards = new HashMap<>();
+
+    /**
+     * Constructor for HotelLeaderboard
+     * @param starsWeight weight of one star in the score
+     * @param wishListWeight weight of the logarithm of the wishlist count in the score
+     */
+    public HotelLeaderboard(@Value("${hotel.ranking.stars-weight:1.0}") double starsWeight,
+                            @Value("${hotel.ranking.wishlist-weight:1.0}") double wishListWeight) {
+        this.starsWeight = starsWeight;
+        this.wishListWeight = wishListWeight;
+        boards.put(Metric.STARS, new TreeSet<>(Comparator.comparingInt(Entry::stars).reversed()
+                .thenComparing(Comparator.comparingLong(Entry::wishListCount).reversed()).thenComparing(BY_ID)));
+        boards.put(Metric.WISHLISTED, new TreeSet<>(Comparator.comparingLong(Entry::wishListCount).reversed()
+                .thenComparing(Comparator.comparingInt(Entry::stars).reversed()).thenComparing(BY_ID)));
+        boards.put(Metric.SCORE, new TreeSet<>(Comparator.comparingDouble(Entry::score).reversed().thenComparing(BY_ID)));
+    }
+
+    /**
+     * Removes all hotels and wishlist counts
+     */
+    public void clear() {
+        lock.writeLock().lock();
+        try {
+            entries.clear();
+            wishListCounts.clear();
+            boards.values().forEach(NavigableSet::clear);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Adds a hotel, or updates it if it is already ranked. Its wishlist count is kept.
+     * @param hotel the hotel
+     */
+    public void put(Hotel hotel) {
+        List<HotelFacility> facilities = hotel.getFacilities() == null ? List.of() : hotel.getFacilities();
+        long facilityMask = FacilityDictionary.toMask(facilities);
+        Set<String> unmaskedFacilities = unmasked(facilities.stream().map(HotelFacility::getName).toList());
+        lock.writeLock().lock();
+        try {
+            long count = wishListCounts.getOrDefault(hotel.getId(), 0L);
+            replace(hotel.getId(), new Entry(hotel.getId(), hotel.getName(), hotel.getStars(), count,
+                    score(hotel.getStars(), count), facilityMask, unmaskedFacilities));
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Removes a hotel
+     * @param id id of the hotel
+     */
+    public void remove(long id) {
+        lock.writeLock().lock();
+        try {
+            replace(id, null);
+            wishListCounts.remove(id);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Sets the number of wishlists that contain a hotel
+     * @param id id of the hotel
+     * @param count number of wishlists that contain it
+     */
+    public void setWishListCount(long id, long count) {
+        lock.writeLock().lock();
+        try {
+            wishListCounts.put(id, count);
+            Entry entry = entries.get(id);
+            if (entry != null) {
+                replace(id, new Entry(id, entry.name, entry.stars, count, score(entry.stars, count),
+                        entry.facilityMask, entry.unmaskedFacilities));
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Gets the best hotels by a metric
+     * @param metric the metric to rank by
+     * @param facilities names of the facilities a hotel must have, empty for any hotel
+     * @param limit maximum number of hotels
+     * @return the best hotels, best first
+     */
+    public List<HotelRanking> top(Metric metric, Collection<String> facilities, int limit) {
+        if (!facilities.stream().allMatch(FacilityDictionary::isKnown)) {
+            return List.of();
+        }
+        long facilityMask = FacilityDictionary.toMask(facilities.stream().map(FacilityDictionary::find).toList());
+        Set<String> unmaskedFacilities = unmasked(facilities);
+        lock.readLock().lock();
+        try {
+            List<HotelRanking> result = new ArrayList<>(Math.min(limit, entries.size()));
+            for (Entry entry : boards.get(metric)) {
+                if (result.size() == limit) {
+                    break;
+                }
+                if ((entry.facilityMask & facilityMask) == facilityMask
+                        && entry.unmaskedFacilities.containsAll(unmaskedFacilities)) {
+                    result.add(new HotelRanking(entry.id, entry.name, entry.stars, entry.wishListCount, entry.score));
+                }
+            }
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void replace(long id, Entry entry) {
+        Entry previous = entry == null ? entries.remove(id) : entries.put(id, entry);
+        for (NavigableSet<Entry> board : boards.values()) {
+            if (previous != null) {
+                board.remove(previous);
+            }
+            if (entry != null) {
+                board.add(entry);
+            }
+        }
+    }
+
+    private static Set<String> unmasked(Collection<String> facilities) {
+        return facilities.stream()
+                .filter(name -> !FacilityDictionary.fitsInMask(name))
+                .collect(Collectors.toUnmodifiableSet());
+    }
+
+    private double score(int stars, long wishListCount) {
+        return starsWeight * stars + wishListWeight * Math.log1p(wishListCount);
+    }
+
+    private record Entry(long id, String name, int stars, long wishListCount, double score,
+                         long facilityMask, Set<String> unmaskedFacilities) {}
+}
@@ -0,0 +1,282 @@
+package server.services;
+
+import commons.Hotel;
+import commons.HotelNameMatch;
+import org.springframework.stereotype.Component;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-memory index over hotel names. Prefix lookups use a sorted term dictionary (the whole name and
+ * each word of it), typo tolerant lookups find candidate terms through a trigram index and verify them
+ * with a bounded edit distance. A query too short to share a trigram with every term within the distance
+ * takes its candidates from the terms of a close enough length instead.
+ */
+@Component
+public class HotelNameIndex {
+    public static final int MAX_DISTANCE = 2;
+
+    private static final int EXACT_NAME = 0;
+    private static final int NAME_PREFIX = 1;
+    private static final int EXACT_WORD = 2;
+    private static final int WORD_PREFIX = 3;
+    private static final int TYPO = 4;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<Long, String> names = new HashMap<>();
+    private final Map<Long, String> normalizedNames = new HashMap<>();
+    private final TreeMap<String, Set<Long>> terms = new TreeMap<>();
+    private final Map<String, Set<String>> trigrams = new HashMap<>();
+    private final Map<Integer, Set<String>> termsByLength = new HashMap<>();
+
+    /**
+     * Removes all hotels from the index
+     */
+    public void clear() {
+        lock.writeLock().lock();
+        try {
+            names.clear();
+            normalizedNames.clear();
+            terms.clear();
+            trigrams.clear();
+            termsByLength.clear();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Adds a hotel to the index, or replaces the entry of a hotel that is already indexed
+     * @param hotel the hotel to index
+     */
+    public void put(Hotel hotel) {
+        lock.writeLock().lock();
+        try {
+            removeEntry(hotel.getId());
+            if (hotel.getName() == null) {
+                return;
+            }
+            String normalized = normalize(hotel.getName());
+            names.put(hotel.getId(), hotel.getName());
+            normalizedNames.put(hotel.getId(), normalized);
+            for (String term : termsOf(normalized)) {
+                Set<Long> ids = terms.get(term);
+                if (ids == null) {
+                    ids = new HashSet<>();
+                    terms.put(term, ids);
+                    for (String trigram : trigramsOf(term)) {
+                        trigrams.computeIfAbsent(trigram, key -> new HashSet<>()).add(term);
+                    }
+                    termsByLength.computeIfAbsent(term.length(), key -> new HashSet<>()).add(term);
+                }
+                ids.add(hotel.getId());
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Removes a hotel from the index
+     * @param id id of the hotel to remove
+     */
+    public void remove(long id) {
+        lock.writeLock().lock();
+        try {
+            removeEntry(id);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Finds hotels by name. Exact and prefix matches on the whole name rank first, then matches on a single
+     * word of the name, then names within the allowed number of typos, closest first.
+     * @param query the (partial) name to look for
+     * @param maxDistance the maximum number of edits for typo tolerant matches, 0 for prefix matches only
+     * @param limit the maximum number of matches to return
+     * @return the best matches, best first
+     */
+    public List<HotelNameMatch> search(String query, int maxDistance, int limit) {
+        String normalized = normalize(query);
+        if (normalized.isEmpty()) {
+            return List.of();
+        }
+        int distance = Math.min(Math.max(maxDistance, 0), MAX_DISTANCE);
+
+        lock.readLock().lock();
+        try {
+            Map<Long, int[]> best = new HashMap<>();
+            for (Map.Entry<String, Set<Long>> entry : terms.subMap(normalized, normalized + Character.MAX_VALUE).entrySet()) {
+                for (long id : entry.getValue()) {
+                    int rank = rankOfPrefixMatch(normalized, entry.getKey(), normalizedNames.get(id));
+                    offer(best, id, rank, 0);
+                }
+            }
+            if (distance > 0) {
+                for (String term : candidateTerms(normalized, distance)) {
+                    int edits = boundedDistance(normalized, term, distance);
+                    if (edits <= distance) {
+                        for (long id : terms.get(term)) {
+                            offer(best, id, TYPO, edits);
+                        }
+                    }
+                }
+            }
+
+            List<Map.Entry<Long, int[]>> ranked = new ArrayList<>(best.entrySet());
+            ranked.sort(Comparator.<Map.Entry<Long, int[]>>comparingInt(entry -> entry.getValue()[0])
+                    .thenComparingInt(entry -> entry.getValue()[1])
+                    .thenComparingInt(entry -> names.get(entry.getKey()).length())
+                    .thenComparing(entry -> names.get(entry.getKey())));
+            List<HotelNameMatch> matches = new ArrayList<>(Math.min(limit, ranked.size()));
+            for (Map.Entry<Long, int[]> entry : ranked) {
+                if (matches.size() == limit) {
+                    break;
+                }
+                matches.add(new HotelNameMatch(entry.getKey(), names.get(entry.getKey()), entry.getValue()[1]));
+            }
+            return matches;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void removeEntry(long id) {
+        String normalized = normalizedNames.remove(id);
+        names.remove(id);
+        if (normalized == null) {
+            return;
+        }
+        for (String term : termsOf(normalized)) {
+            Set<Long> ids = terms.get(term);
+            if (ids == null) {
+                continue;
+            }
+            ids.remove(id);
+            if (ids.isEmpty()) {
+                terms.remove(term);
+                for (String trigram : trigramsOf(term)) {
+                    Set<String> termsWithTrigram = trigrams.get(trigram);
+                    termsWithTrigram.remove(term);
+                    if (termsWithTrigram.isEmpty()) {
+                        trigrams.remove(trigram);
+                    }
+                }
+                Set<String> termsOfLength = termsByLength.get(term.length());
+                termsOfLength.remove(term);
+                if (termsOfLength.isEmpty()) {
+                    termsByLength.remove(term.length());
+                }
+            }
+        }
+    }
+
+    private Set<String> candidateTerms(String query, int distance) {
+        Set<String> candidates = new HashSet<>();
+        // a query of n characters has n padded trigrams and each edit changes at most 3 of them, so a term
+        // within the distance only has to share one with the query when n - 3 * distance is positive
+        if (query.length() <= 3 * distance) {
+            for (int length = Math.max(1, query.length() - distance); length <= query.length() + distance; length++) {
+                candidates.addAll(termsByLength.getOrDefault(length, Set.of()));
+            }
+            return candidates;
+        }
+        for (String trigram : trigramsOf(query)) {
+            Set<String> termsWithTrigram = trigrams.get(trigram);
+            if (termsWithTrigram == null) {
+                continue;
+            }
+            for (String term : termsWithTrigram) {
+                if (Math.abs(term.length() - query.length()) <= distance) {
+                    candidates.add(term);
+                }
+            }
+        }
+        return candidates;
+    }
+
+    private static void offer(Map<Long, int[]> best, long id, int rank, int distance) {
+        int[] current = best.get(id);
+        if (current == null || rank < current[0] || (rank == current[0] && distance < current[1])) {
+            best.put(id, new int[] {rank, distance});
+        }
+    }
+
+    private static int rankOfPrefixMatch(String query, String term, String name) {
+        if (term.equals(name)) {
+            return term.equals(query) ? EXACT_NAME : NAME_PREFIX;
+        }
+        return term.equals(query) ? EXACT_WORD : WORD_PREFIX;
+    }
+
+    /**
+     * Levenshtein distance that gives up as soon as it is certain to exceed the bound
+     * @return the distance, or bound + 1 if it is larger than the bound
+     */
+    static int boundedDistance(String a, String b, int bound) {
+        if (Math.abs(a.length() - b.length()) > bound) {
+            return bound + 1;
+        }
+        int[] previous = new int[b.length() + 1];
+        int[] current = new int[b.length() + 1];
+        for (int j = 0; j <= b.length(); j++) {
+            previous[j] = j;
+        }
+        for (int i = 1; i <= a.length(); i++) {
+            current[0] = i;
+            int rowMin = current[0];
+            for (int j = 1; j <= b.length(); j++) {
+                int cost = a.charAt(i - 1) == b.charAt(j - 1) ? 0 : 1;
+                current[j] = Math.min(Math.min(current[j - 1] + 1, previous[j] + 1), previous[j - 1] + cost);
+                rowMin = Math.min(rowMin, current[j]);
+            }
+            if (rowMin > bound) {
+                return bound + 1;
+            }
+            int[] swap = previous;
+            previous = current;
+            current = swap;
+        }
+        return Math.min(previous[b.length()], bound + 1);
+    }
+
+    private static Set<String> termsOf(String normalizedName) {
+        Set<String> result = new LinkedHashSet<>();
+        if (normalizedName.isEmpty()) {
+            return result;
+        }
+        result.add(normalizedName);
+        for (String word : normalizedName.split(" ")) {
+            result.add(word);
+        }
+        return result;
+    }
+
+    private static Set<String> trigramsOf(String term) {
+        String padded = "$" + term + "$";
+        Set<String> result = new HashSet<>();
+        for (int i = 0; i + 3 <= padded.length(); i++) {
+            result.add(padded.substring(i, i + 3));
+        }
+        return result;
+    }
+
+    private static String normalize(String name) {
+        String stripped = Normalizer.normalize(name, Normalizer.Form.NFD).replaceAll("\\p{M}", "");
+        // letters and digits of every script, not only ASCII, so names in Cyrillic, Greek or CJK stay searchable
+        return stripped.toLowerCase(Locale.ROOT).replaceAll("(?U)[^\\p{Alnum}]+", " ").trim();
+    }
+}
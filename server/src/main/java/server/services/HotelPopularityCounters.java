@@ -0,0 +1,226 @@
+package server.services;
+
+import commons.HotelPopularity;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import server.database.WishListRepository;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/**
+ * Number of wishlists that contain each hotel, kept in LongAdders so concurrent wishlist edits never wait on
+ * each other. Changed counts are written to the hotel_wishlist_count table and to the leaderboard periodically,
+ * and all counts are recounted from the wishlists whenever the catalog is loaded. Wishlist edits run through
+ * {@link #counted(Supplier)}, which holds them back while the wishlists are recounted, so no edit is left out
+ * of both the recount and the counters, or counted in both. Outside a recount an edit only marks itself in
+ * flight on a counter striped by thread and reads a flag, so edits do not contend on a shared lock.
+ */
+@Component
+public class HotelPopularityCounters {
+    private static final String MERGE_COUNT =
+            "MERGE INTO hotel_wishlist_count (hotel_id, wishlist_count, updated_at) KEY (hotel_id) VALUES (?, ?, ?)";
+    private static final String DELETE_COUNT = "DELETE FROM hotel_wishlist_count WHERE hotel_id = ?";
+    private static final String DELETE_COUNTS = "DELETE FROM hotel_wishlist_count";
+    private static final int STRIPES = Integer.highestOneBit(Runtime.getRuntime().availableProcessors() * 2 - 1) << 1;
+    // longs between two used slots, so the stripes are on separate cache lines
+    private static final int PADDING = 16;
+    private static final long DRAIN_PAUSE_NANOS = 100_000;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final WishListRepository wishListRepository;
+    private final HotelLeaderboard hotelLeaderboard;
+    private final TransactionTemplate transaction;
+    private final ConcurrentHashMap<Long, LongAdder> counts = new ConcurrentHashMap<>();
+    // hotels whose count changed since the last flush
+    private final Set<Long> dirty = ConcurrentHashMap.newKeySet();
+    // edits running on threads of each stripe, from their transaction until their counts are added
+    private final AtomicLongArray inFlight = new AtomicLongArray(STRIPES * PADDING);
+    // set while the wishlists are recounted, under the recount lock that held back edits wait on
+    private volatile boolean recounting;
+    private final ReentrantLock recountLock = new ReentrantLock();
+
+    /**
+     * Constructor for HotelPopularityCounters
+     * @param jdbcTemplate the JDBC template, to write the counts
+     * @param wishListRepository the wish list repository, to recount from the wishlists
+     * @param hotelLeaderboard the hotel rankings, which get the flushed counts
+     * @param transactionManager the transaction manager
+     */
+    public HotelPopularityCounters(JdbcTemplate jdbcTemplate, WishListRepository wishListRepository,
+                                   HotelLeaderboard hotelLeaderboard, PlatformTransactionManager transactionManager) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.wishListRepository = wishListRepository;
+        this.hotelLeaderboard = hotelLeaderboard;
+        this.transaction = new TransactionTemplate(transactionManager);
+    }
+
+    /**
+     * Runs a wishlist edit, from its transaction up to its calls to {@link #add(long, long)}, so a recount
+     * either sees the edit in the database and not in the counters, or waits until both have it
+     * @param edit the edit
+     * @return the result of the edit
+     */
+    public <T> T counted(Supplier<T> edit) {
+        int slot = (int) (Thread.currentThread().getId() & (STRIPES - 1)) * PADDING;
+        // marked before the flag is read, and the recount sets the flag before it reads the marks,
+        // so either the edit sees the recount and waits, or the recount sees the edit and waits for it
+        inFlight.incrementAndGet(slot);
+        while (recounting) {
+            inFlight.decrementAndGet(slot);
+            recountLock.lock();
+            recountLock.unlock();
+            inFlight.incrementAndGet(slot);
+        }
+        try {
+            return edit.get();
+        } finally {
+            inFlight.decrementAndGet(slot);
+        }
+    }
+
+    /**
+     * Changes the number of wishlists that contain a hotel
+     * @param hotelId id of the hotel
+     * @param delta change of the count, positive when the hotel was added to a wishlist
+     */
+    public void add(long hotelId, long delta) {
+        counts.computeIfAbsent(hotelId, id -> new LongAdder()).add(delta);
+        // marked after counting, so a flush that misses this change is followed by one that writes it
+        dirty.add(hotelId);
+    }
+
+    /**
+     * Getter for the number of wishlists that contain a hotel
+     * @param hotelId id of the hotel
+     * @return number of wishlists, 0 for an unknown hotel
+     */
+    public long count(long hotelId) {
+        LongAdder count = counts.get(hotelId);
+        return count == null ? 0 : Math.max(0, count.sum());
+    }
+
+    /**
+     * Gets the hotels that are in the most wishlists
+     * @param limit maximum number of hotels
+     * @return the most wishlisted hotels with their counts, most wishlisted first, ties by id
+     */
+    public List<HotelPopularity> top(int limit) {
+        Comparator<HotelPopularity> best = Comparator.comparingLong(HotelPopularity::getWishListCount).reversed()
+                .thenComparingLong(HotelPopularity::getHotelId);
+        // worst of the best so far at the head
+        PriorityQueue<HotelPopularity> heap = new PriorityQueue<>(limit + 1, best.reversed());
+        counts.forEach((hotelId, adder) -> {
+            long count = adder.sum();
+            if (count > 0) {
+                heap.add(new HotelPopularity(hotelId, count));
+                if (heap.size() > limit) {
+                    heap.poll();
+                }
+            }
+        });
+        List<HotelPopularity> result = new ArrayList<>(heap);
+        result.sort(best);
+        return result;
+    }
+
+    /**
+     * Writes the counts that changed since the last flush to the database and to the leaderboard
+     */
+    @Scheduled(fixedDelayString = "${hotel.popularity.flush-interval:10s}", initialDelayString = "${hotel.popularity.flush-interval:10s}")
+    public synchronized void flush() {
+        if (dirty.isEmpty()) {
+            return;
+        }
+        List<Long> flushed = new ArrayList<>();
+        List<Object[]> rows = new ArrayList<>();
+        Timestamp now = Timestamp.from(Instant.now());
+        for (Long hotelId : dirty) {
+            dirty.remove(hotelId);
+            flushed.add(hotelId);
+            rows.add(new Object[] {hotelId, count(hotelId), now});
+        }
+        try {
+            jdbcTemplate.batchUpdate(MERGE_COUNT, rows);
+        } catch (RuntimeException e) {
+            dirty.addAll(flushed);
+            throw e;
+        }
+        for (Object[] row : rows) {
+            hotelLeaderboard.setWishListCount((Long) row[0], (Long) row[1]);
+        }
+    }
+
+    /**
+     * Recounts every hotel from the wishlists, and rewrites the stored counts and the leaderboard counts.
+     * Wishlist edits wait while the wishlists are recounted, which only happens when the catalog is reloaded.
+     */
+    public synchronized void rebuild() {
+        Map<Long, Long> recounted = new HashMap<>();
+        recountLock.lock();
+        try {
+            recounting = true;
+            awaitEditsInFlight();
+            for (Object[] row : wishListRepository.countWishListsPerHotel()) {
+                recounted.put(((Number) row[0]).longValue(), ((Number) row[1]).longValue());
+            }
+            counts.forEach((hotelId, adder) -> {
+                if (!recounted.containsKey(hotelId)) {
+                    adder.reset();
+                }
+            });
+            recounted.forEach((hotelId, count) -> {
+                LongAdder adder = counts.computeIfAbsent(hotelId, id -> new LongAdder());
+                adder.reset();
+                adder.add(count);
+            });
+            dirty.clear();
+        } finally {
+            recounting = false;
+            recountLock.unlock();
+        }
+
+        Timestamp now = Timestamp.from(Instant.now());
+        List<Object[]> rows = new ArrayList<>(recounted.size());
+        recounted.forEach((hotelId, count) -> rows.add(new Object[] {hotelId, count, now}));
+        transaction.executeWithoutResult(status -> {
+            jdbcTemplate.update(DELETE_COUNTS);
+            jdbcTemplate.batchUpdate(MERGE_COUNT, rows);
+        });
+        recounted.forEach(hotelLeaderboard::setWishListCount);
+    }
+
+    private void awaitEditsInFlight() {
+        for (int slot = 0; slot < inFlight.length(); slot += PADDING) {
+            while (inFlight.get(slot) > 0) {
+                LockSupport.parkNanos(DRAIN_PAUSE_NANOS);
+            }
+        }
+    }
+
+    /**
+     * Forgets the count of a deleted hotel
+     * @param hotelId id of the hotel
+     */
+    public synchronized void remove(long hotelId) {
+        counts.remove(hotelId);
+        dirty.remove(hotelId);
+        jdbcTemplate.update(DELETE_COUNT, hotelId);
+    }
+}
@@ -1,48 +1,306 @@
 package server.services;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.io.SerializedString;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import commons.FacilityDictionary;
 import commons.Hotel;
-import commons.HotelFacility;
-import commons.HotelListWrapper;
+import commons.HotelBatch;
+import commons.HotelSummary;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
-import server.database.HotelFacilityRepository;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import server.database.CatalogImport;
+import server.database.CatalogImportRepository;
 import server.database.HotelRepository;
 
 import java.io.IOException;
 import java.io.InputStream;
-import java.util.HashSet;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
 import java.util.Set;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 @Service
 public class HotelService {
+    private static final int STREAM_FLUSH_INTERVAL = 256;
+    private static final int MULTI_GET_CHUNK_SIZE = 500;
+
     @Autowired
     private HotelRepository hotelRepository;
     @Autowired
-    private HotelFacilityRepository hotelFacilityRepository;
+    private HotelImportService hotelImportService;
+    @Autowired
+    private CatalogImportRepository catalogImportRepository;
+    @Autowired
+    private ObjectMapper objectMapper;
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+    @Autowired
+    private HotelFacilityIndex hotelFacilityIndex;
+    @Autowired
+    private HotelNameIndex hotelNameIndex;
+    @Autowired
+    private HotelLeaderboard hotelLeaderboard;
+    @Autowired
+    private HotelPopularityCounters hotelPopularityCounters;
+    @Autowired
+    private WishListService wishListService;
+    @Autowired
+    private BoundedCache<Long, Hotel> hotelCache;
+    @Autowired
+    private ContentVersions contentVersions;
+    @Autowired
+    private CatalogStatus catalogStatus;
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    /**
+     * Makes the catalog mirror a JSON file on the classpath. The checksum of the last loaded version is stored,
+     * so an unchanged file is not read again. A changed file is compared hotel by hotel and only the
+     * differences are written. Progress is reported through {@link CatalogStatus}.
+     * @param resourcePath path of the file on the classpath
+     * @throws IOException if the file cannot be read or is not a hotel list
+     */
+    public void loadHotelsFromJson(String resourcePath) throws IOException {
+        catalogStatus.importing();
+        String checksum = checksumOf(resourcePath);
+        boolean unchanged = catalogImportRepository.findById(resourcePath)
+                .map(catalogImport -> catalogImport.getChecksum().equals(checksum))
+                .orElse(false);
+        if (unchanged) {
+            System.out.println("Hotels in " + resourcePath + " did not change, skipping load");
+        } else {
+            HotelImportService.Result result;
+            try (InputStream inputStream = openResource(resourcePath)) {
+                result = hotelImportService.syncHotels(resourcePath, inputStream, catalogStatus::setProcessedHotels);
+            }
+            catalogImportRepository.save(new CatalogImport(resourcePath, checksum, Instant.now()));
+            System.out.println("Hotels loaded into the database: " + result);
+            compactIfDeleted(result);
+        }
+        catalogStatus.indexing();
+        onCatalogReloaded();
+    }
+
+    /**
+     * Imports hotels from a JSON document and refreshes everything derived from the catalog
+     * @param inputStream the document with the hotels
+     * @return counters of the import
+     * @throws IOException if the document cannot be read or is not a hotel list
+     */
+    public HotelImportService.Result importHotels(InputStream inputStream) throws IOException {
+        HotelImportService.Result result = hotelImportService.importHotels(inputStream);
+        compactIfDeleted(result);
+        onCatalogReloaded();
+        return result;
+    }
+
+    // deleted hotels leave gaps in the positions of the wishlists that contained them
+    private void compactIfDeleted(HotelImportService.Result result) {
+        if (result.getDeleted() > 0) {
+            wishListService.compactHotelPositions();
+        }
+    }
+
+    private InputStream openResource(String resourcePath) throws IOException {
+        InputStream inputStream = getClass().getClassLoader().getResourceAsStream(resourcePath);
+        if (inputStream == null) {
+            throw new IOException("File not found in the classpath: " + resourcePath);
+        }
+        return inputStream;
+    }
 
-    public void loadHotelsFromJson(String resourcePath) {
+    private String checksumOf(String resourcePath) throws IOException {
+        MessageDigest digest;
         try {
-            InputStream inputStream = getClass().getClassLoader().getResourceAsStream(resourcePath);
-            if (inputStream == null) {
-                throw new IOException("File not found in the classpath: " + resourcePath);
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+        try (InputStream inputStream = new DigestInputStream(openResource(resourcePath), digest)) {
+            inputStream.transferTo(OutputStream.nullOutputStream());
+        }
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
+    /**
+     * Gets a hotel by id, from the cache when possible
+     * @param id id of the hotel
+     * @return the hotel, empty if there is no hotel with this id
+     */
+    public Optional<Hotel> findHotel(long id) {
+        return hotelCache.get(id, hotelRepository::findById);
+    }
+
+    /**
+     * Gets several hotels by id. Cached hotels are served from the cache, the others are loaded with
+     * IN queries of at most {@value #MULTI_GET_CHUNK_SIZE} ids each.
+     * @param ids ids of the hotels, duplicates are ignored
+     * @return the hotels in the order of their first occurrence in ids, and the ids that do not exist
+     */
+    public HotelBatch findHotels(List<Long> ids) {
+        Set<Long> distinctIds = new LinkedHashSet<>(ids);
+        Map<Long, Hotel> found = hotelCache.getAll(distinctIds, missing -> {
+            List<Long> missingIds = new ArrayList<>(missing);
+            Map<Long, Hotel> loaded = new HashMap<>();
+            for (int from = 0; from < missingIds.size(); from += MULTI_GET_CHUNK_SIZE) {
+                List<Long> chunk = missingIds.subList(from, Math.min(from + MULTI_GET_CHUNK_SIZE, missingIds.size()));
+                hotelRepository.findAllById(chunk).forEach(hotel -> loaded.put(hotel.getId(), hotel));
+            }
+            return loaded;
+        });
+
+        List<Hotel> hotels = new ArrayList<>(found.size());
+        List<Long> missing = new ArrayList<>();
+        for (Long id : distinctIds) {
+            Hotel hotel = found.get(id);
+            if (hotel != null) {
+                hotels.add(hotel);
+            } else {
+                missing.add(id);
+            }
+        }
+        return new HotelBatch(hotels, missing);
+    }
+
+    /**
+     * Gets summaries of the hotels following an id, ordered by id. Only the hotel table is read,
+     * plus the facility join table if facility names are requested.
+     * @param after only hotels with an id greater than this are returned
+     * @param limit maximum number of summaries, 0 for all hotels
+     * @param withFacilities whether to include the facility names
+     * @return the hotel summaries
+     */
+    public List<HotelSummary> findSummaries(long after, int limit, boolean withFacilities) {
+        List<HotelSummary> summaries = hotelRepository.findSummaries(after, limit > 0 ? PageRequest.of(0, limit) : Pageable.unpaged());
+        if (withFacilities && !summaries.isEmpty()) {
+            Map<Long, HotelSummary> byId = new HashMap<>();
+            for (HotelSummary summary : summaries) {
+                summary.setFacilities(new ArrayList<>());
+                byId.put(summary.getId(), summary);
             }
+            long last = summaries.get(summaries.size() - 1).getId();
+            for (Object[] row : hotelRepository.findFacilityNames(after, last)) {
+                byId.get((Long) row[0]).getFacilities().add(FacilityDictionary.internName((String) row[1]));
+            }
+        }
+        return summaries;
+    }
+
+    /**
+     * Getter for the counters of the hotel cache
+     * @return counters of the hotel cache
+     */
+    public BoundedCache.Stats getCacheStats() {
+        return hotelCache.getStats();
+    }
+
+    /**
+     * Drops the cached hotels and rebuilds the in-memory hotel indexes, leaderboards and popularity counters from
+     * the database, after the catalog was (re)loaded in bulk
+     */
+    public void onCatalogReloaded() {
+        contentVersions.catalogChanged();
+        hotelCache.clear();
+        hotelFacilityIndex.clear();
+        hotelNameIndex.clear();
+        hotelLeaderboard.clear();
+        forEachHotel(hotel -> {
+            hotelFacilityIndex.put(hotel);
+            hotelNameIndex.put(hotel);
+            hotelLeaderboard.put(hotel);
+        });
+        hotelPopularityCounters.rebuild();
+    }
+
+    /**
+     * Invalidates the cached hotel and updates the in-memory hotel indexes and leaderboards after a hotel was created or updated
+     * @param hotel the saved hotel
+     */
+    public void onHotelSaved(Hotel hotel) {
+        contentVersions.catalogChanged();
+        hotelCache.invalidate(hotel.getId());
+        hotelFacilityIndex.put(hotel);
+        hotelNameIndex.put(hotel);
+        hotelLeaderboard.put(hotel);
+    }
 
-            ObjectMapper objectMapper = new ObjectMapper();
-            HotelListWrapper wrapper = objectMapper.readValue(inputStream, HotelListWrapper.class);
+    /**
+     * Invalidates the cached hotel and updates the in-memory hotel indexes and leaderboards after a hotel was deleted
+     * @param id id of the deleted hotel
+     */
+    public void onHotelDeleted(long id) {
+        contentVersions.catalogChanged();
+        hotelCache.invalidate(id);
+        hotelFacilityIndex.remove(id);
+        hotelNameIndex.remove(id);
+        hotelLeaderboard.remove(id);
+        hotelPopularityCounters.remove(id);
+    }
 
-            List<Hotel> hotels = wrapper.getHotels();
-            Set<HotelFacility> facilities = new HashSet<>();
-            for(Hotel hotel : hotels) {
-                facilities.addAll(hotel.getFacilities());
+    /**
+     * Visits every hotel in id order using a scrolling cursor. Each hotel is detached once visited,
+     * so memory use does not depend on the size of the catalog.
+     * @param action action to run for every hotel
+     */
+    public void forEachHotel(Consumer<Hotel> action) {
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        transaction.setReadOnly(true);
+        transaction.executeWithoutResult(status -> {
+            try (Stream<Hotel> hotels = hotelRepository.streamAllOrderedById()) {
+                hotels.forEach(hotel -> {
+                    action.accept(hotel);
+                    entityManager.detach(hotel);
+                });
             }
-            hotelFacilityRepository.saveAll(facilities);
-            hotelRepository.saveAll(hotels);
+        });
+    }
 
-            System.out.println("Hotels loaded into the database");
-        } catch (IOException e) {
-            e.printStackTrace();
+    /**
+     * Writes all hotels to the given stream as newline delimited JSON, one hotel per line
+     * @param out stream to write to
+     * @throws IOException if writing to the stream fails
+     */
+    public void writeHotelsAsNdjson(OutputStream out) throws IOException {
+        ObjectWriter writer = objectMapper.writerFor(Hotel.class).without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        JsonGenerator generator = objectMapper.getFactory().createGenerator(out);
+        generator.setRootValueSeparator(new SerializedString("\n"));
+        int[] written = {0};
+        try {
+            forEachHotel(hotel -> {
+                try {
+                    writer.writeValue(generator, hotel);
+                    if (++written[0] % STREAM_FLUSH_INTERVAL == 0) {
+                        generator.flush();
+                    }
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
         }
+        generator.writeRaw('\n');
+        generator.flush();
     }
 }
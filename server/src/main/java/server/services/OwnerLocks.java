@@ -0,0 +1,48 @@
+package server.services;
+
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/**
+ * Striped locks keyed by username. Writes to the wishlists of one person run one at a time in this process,
+ * so they queue instead of failing on version conflicts, while different people rarely share a stripe.
+ */
+@Component
+public class OwnerLocks {
+    private static final int STRIPES = 64;
+
+    private final ReentrantLock[] locks = new ReentrantLock[STRIPES];
+
+    /**
+     * Constructor for OwnerLocks
+     */
+    public OwnerLocks() {
+        for (int i = 0; i < STRIPES; i++) {
+            locks[i] = new ReentrantLock();
+        }
+    }
+
+    /**
+     * Runs an action while holding the lock of a person
+     * @param username username of the person
+     * @param action the action
+     * @return the result of the action
+     * @param <T> type of the result
+     */
+    public <T> T withLock(String username, Supplier<T> action) {
+        ReentrantLock lock = lockOf(username);
+        lock.lock();
+        try {
+            return action.get();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private ReentrantLock lockOf(String username) {
+        int hash = username.hashCode();
+        return locks[(hash ^ (hash >>> 16)) & (STRIPES - 1)];
+    }
+}
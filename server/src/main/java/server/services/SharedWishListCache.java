@@ -0,0 +1,211 @@
+package server.services;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import commons.SharingCodes;
+import commons.WishList;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import server.database.WishListRepository;
+
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * Keeps the most requested shared wishlists in memory as immutable snapshots of their serialized responses,
+ * so popular shared links are answered without the database or serialization. When a wishlist changes its
+ * snapshot is rebuilt in the background, and the previous snapshot is served meanwhile for at most the
+ * configured staleness. A snapshot is not served once the catalog changed after it was built, as the wishlist
+ * embeds hotels.
+ */
+@Service
+public class SharedWishListCache {
+    private static final Logger log = LoggerFactory.getLogger(SharedWishListCache.class);
+
+    private final WishListRepository wishListRepository;
+    private final ContentVersions contentVersions;
+    private final TransactionTemplate readOnlyTransaction;
+    private final ObjectMapper jsonMapper;
+    private final ObjectMapper smileMapper;
+    private final long maxStalenessNanos;
+    private final BoundedCache<String, Snapshot> snapshots;
+    // when each wishlist with a snapshot that is being rebuilt changed first
+    private final ConcurrentHashMap<String, Long> staleSince = new ConcurrentHashMap<>();
+    private final Set<String> pendingRebuilds = ConcurrentHashMap.newKeySet();
+    private final ExecutorService rebuilder = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "wishlist-snapshots");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    /**
+     * Constructor for SharedWishListCache
+     * @param wishListRepository the wish list repository
+     * @param contentVersions the version counters of shared wishlists and of the catalog
+     * @param transactionManager the transaction manager, snapshots are built in read only transactions
+     * @param jsonMapper the object mapper used for JSON snapshots
+     * @param objectMapperBuilder the object mapper builder, used for the Smile mapper
+     * @param maxEntries the maximum number of cached wishlists
+     * @param ttl time after which a snapshot is rebuilt, bounds staleness after changes by other servers
+     * @param maxStaleness how long the previous snapshot of a changed wishlist may be served while it is rebuilt
+     */
+    public SharedWishListCache(WishListRepository wishListRepository, ContentVersions contentVersions,
+                               PlatformTransactionManager transactionManager,
+                               ObjectMapper jsonMapper, Jackson2ObjectMapperBuilder objectMapperBuilder,
+                               @Value("${wishlist.shared-cache.max-entries:1000}") int maxEntries,
+                               @Value("${wishlist.shared-cache.ttl:5m}") Duration ttl,
+                               @Value("${wishlist.shared-cache.max-staleness:2s}") Duration maxStaleness) {
+        this.wishListRepository = wishListRepository;
+        this.contentVersions = contentVersions;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.jsonMapper = jsonMapper;
+        this.smileMapper = objectMapperBuilder.factory(new SmileFactory()).build();
+        this.maxStalenessNanos = maxStaleness.toNanos();
+        this.snapshots = new BoundedCache<>(maxEntries, ttl);
+    }
+
+    /**
+     * Gets the snapshot of a wishlist by sharing code, from memory when possible. The snapshot of a wishlist
+     * that changed is served until its rebuild is done, unless that takes longer than the allowed staleness.
+     * @param code the sharing code, a sharing key or the UUID code of an older wishlist
+     * @return the snapshot of the wishlist, empty if no wishlist has this code
+     */
+    public Optional<Snapshot> find(String code) {
+        String eTag = contentVersions.sharedWishListETag(code);
+        Optional<Snapshot> snapshot = snapshots.get(code, c -> build(c, eTag));
+        if (snapshot.isEmpty() || snapshot.get().eTag.equals(eTag)) {
+            return snapshot;
+        }
+        Long changedAt = staleSince.get(code);
+        if (changedAt != null && System.nanoTime() - changedAt <= maxStalenessNanos) {
+            return snapshot;
+        }
+        return rebuild(code);
+    }
+
+    /**
+     * Marks the snapshot of a wishlist as stale after the wishlist changed, and rebuilds it in the background
+     * @param code sharing code of the wishlist
+     */
+    public void invalidate(String code) {
+        if (code == null || !snapshots.contains(code)) {
+            return;
+        }
+        staleSince.putIfAbsent(code, System.nanoTime());
+        if (pendingRebuilds.add(code)) {
+            try {
+                rebuilder.execute(() -> {
+                    pendingRebuilds.remove(code);
+                    try {
+                        rebuild(code);
+                    } catch (RuntimeException e) {
+                        // the stale snapshot is kept, and is rebuilt by a request once it is too old to serve
+                        log.warn("Could not rebuild the snapshot of shared wishlist {}", code, e);
+                    }
+                });
+            } catch (RejectedExecutionException e) {
+                pendingRebuilds.remove(code);
+                snapshots.invalidate(code);
+                staleSince.remove(code);
+            }
+        }
+    }
+
+    /**
+     * Getter for the counters of the cache
+     * @return counters of the cache
+     */
+    public BoundedCache.Stats getStats() {
+        return snapshots.getStats();
+    }
+
+    /**
+     * Stops the background rebuilds
+     */
+    @PreDestroy
+    public void shutdown() {
+        rebuilder.shutdownNow();
+    }
+
+    private Optional<Snapshot> rebuild(String code) {
+        Long changedAt = staleSince.get(code);
+        // read before loading, so a change made while building leaves the snapshot marked as outdated
+        String eTag = contentVersions.sharedWishListETag(code);
+        Optional<Snapshot> snapshot = build(code, eTag);
+        if (snapshot.isPresent()) {
+            snapshots.put(code, snapshot.get());
+        } else {
+            snapshots.invalidate(code);
+        }
+        // a change made while building is still waiting for its rebuild, which keeps measuring from the first change
+        if (changedAt != null && eTag.equals(contentVersions.sharedWishListETag(code))) {
+            staleSince.remove(code, changedAt);
+        }
+        return snapshot;
+    }
+
+    private Optional<Snapshot> build(String code, String eTag) {
+        return readOnlyTransaction.execute(status -> {
+            byte[] key = SharingCodes.decode(code);
+            Optional<WishList> wishList = key != null
+                    ? wishListRepository.findBySharingKey(key)
+                    : wishListRepository.findBySharingCode(code);
+            return wishList.map(found -> {
+                try {
+                    return new Snapshot(eTag, jsonMapper.writeValueAsBytes(found), smileMapper.writeValueAsBytes(found));
+                } catch (JsonProcessingException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        });
+    }
+
+    /**
+     * Serialized response for a shared wishlist, as it was when the snapshot was built
+     */
+    public static final class Snapshot {
+        private final String eTag;
+        private final byte[] json;
+        private final byte[] smile;
+
+        private Snapshot(String eTag, byte[] json, byte[] smile) {
+            this.eTag = eTag;
+            this.json = json;
+            this.smile = smile;
+        }
+
+        /**
+         * Getter for the ETag of the snapshot in a format, from the version of the wishlist and of the catalog
+         * the snapshot was built from. Each format has its own tag, as their bodies differ.
+         * @param format JSON or Smile
+         * @return the unquoted ETag of the snapshot in the format
+         */
+        public String getETag(MediaType format) {
+            return eTag + (format.equals(CatalogResponseCache.SMILE) ? ".smile" : ".json");
+        }
+
+        /**
+         * Getter for the body of the snapshot in a format. The array is shared and must not be changed.
+         * @param format JSON or Smile
+         * @return the serialized wishlist
+         */
+        public byte[] getBody(MediaType format) {
+            return format.equals(CatalogResponseCache.SMILE) ? smile : json;
+        }
+    }
+}
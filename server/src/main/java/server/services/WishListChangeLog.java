@@ -0,0 +1,102 @@
+package server.services;
+
+import commons.WishListChange;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Log of the changes of the wishlists of every person, numbered by a sequence per person that only grows.
+ * Only the most recent entries of a person are kept; a client that is further behind gets all wishlists instead.
+ */
+@Component
+public class WishListChangeLog {
+    private static final String ADVANCE_SEQUENCE = "UPDATE person SET change_sequence = change_sequence + ? WHERE username = ?";
+    private static final String SELECT_SEQUENCE = "SELECT change_sequence FROM person WHERE username = ?";
+    private static final String INSERT_ENTRY = "INSERT INTO wish_list_log "
+            + "(username, change_sequence, wish_list_id, type, hotel_id, position, name) VALUES (?, ?, ?, ?, ?, ?, ?)";
+    private static final String DELETE_ENTRIES_UP_TO = "DELETE FROM wish_list_log WHERE username = ? AND change_sequence <= ?";
+    private static final String DELETE_ENTRIES = "DELETE FROM wish_list_log WHERE username = ?";
+    private static final String SELECT_ENTRIES_AFTER = "SELECT change_sequence, wish_list_id, type, hotel_id, position, name "
+            + "FROM wish_list_log WHERE username = ? AND change_sequence > ? ORDER BY change_sequence";
+    private static final RowMapper<WishListChange> CHANGE_MAPPER = (rs, rowNum) -> new WishListChange(
+            rs.getLong("change_sequence"),
+            rs.getLong("wish_list_id"),
+            WishListChange.Type.valueOf(rs.getString("type")),
+            rs.getObject("hotel_id", Long.class),
+            rs.getObject("position", Integer.class),
+            rs.getString("name"));
+
+    private final JdbcTemplate jdbcTemplate;
+    private final int maxEntries;
+
+    /**
+     * Constructor for WishListChangeLog
+     * @param jdbcTemplate the JDBC template
+     * @param maxEntries number of most recent changes kept per person
+     */
+    public WishListChangeLog(JdbcTemplate jdbcTemplate, @Value("${wishlist.sync.max-log-entries:1000}") int maxEntries) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.maxEntries = maxEntries;
+    }
+
+    /**
+     * Appends changes to the log of a person and drops the entries that fall out of the kept range. Must run in
+     * the transaction that makes the changes; the update of the sequence locks the person until it commits.
+     * @param username username of the person
+     * @param changes the changes, in the order they were made
+     */
+    public void append(String username, List<WishListChange> changes) {
+        if (changes.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.update(ADVANCE_SEQUENCE, changes.size(), username);
+        long last = currentSequence(username);
+        long sequence = last - changes.size();
+        List<Object[]> entries = new ArrayList<>(changes.size());
+        for (WishListChange change : changes) {
+            entries.add(new Object[] {username, ++sequence, change.getWishListId(), change.getType().name(),
+                    change.getHotelId(), change.getPosition(), change.getName()});
+        }
+        jdbcTemplate.batchUpdate(INSERT_ENTRY, entries);
+        jdbcTemplate.update(DELETE_ENTRIES_UP_TO, username, last - maxEntries);
+    }
+
+    /**
+     * Getter for the sequence of the last change of a person
+     * @param username username of an existing person
+     * @return the sequence, 0 if nothing was logged yet
+     */
+    public long currentSequence(String username) {
+        return jdbcTemplate.queryForObject(SELECT_SEQUENCE, Long.class, username);
+    }
+
+    /**
+     * Reads the changes of a person after a sequence
+     * @param username username of the person
+     * @param since sequence of the last change the client has seen
+     * @param current sequence of the last change of the person
+     * @return the changes in order, empty if some of them are no longer logged or since is not a sequence of
+     * this person
+     */
+    public Optional<List<WishListChange>> changesSince(String username, long since, long current) {
+        if (since < 0 || since > current || current - since > maxEntries) {
+            return Optional.empty();
+        }
+        List<WishListChange> changes = jdbcTemplate.query(SELECT_ENTRIES_AFTER, CHANGE_MAPPER, username, since);
+        return changes.size() == current - since ? Optional.of(changes) : Optional.empty();
+    }
+
+    /**
+     * Deletes the whole log of a person, along with the person
+     * @param username username of the person
+     */
+    public void deleteAll(String username) {
+        jdbcTemplate.update(DELETE_ENTRIES, username);
+    }
+}
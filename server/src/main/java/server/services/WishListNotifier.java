@@ -0,0 +1,39 @@
+package server.services;
+
+import commons.WishList;
+import commons.WishListEvent;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.stereotype.Service;
+
+/**
+ * Pushes the changes of wishlists over STOMP, to the topic of the wishlist and to the topic of its sharing code,
+ * so clients that watch a wishlist do not have to poll it
+ */
+@Service
+public class WishListNotifier {
+    public static final String WISHLIST_TOPIC = "/topic/wishlist/";
+    public static final String SHARED_TOPIC = "/topic/shared/";
+
+    private final SimpMessagingTemplate messagingTemplate;
+
+    /**
+     * Constructor for WishListNotifier
+     * @param messagingTemplate the template that sends to the message broker
+     */
+    public WishListNotifier(SimpMessagingTemplate messagingTemplate) {
+        this.messagingTemplate = messagingTemplate;
+    }
+
+    /**
+     * Sends a change of a wishlist to everyone watching it
+     * @param wishList the changed wishlist
+     * @param event the change
+     */
+    public void publish(WishList wishList, WishListEvent event) {
+        messagingTemplate.convertAndSend(WISHLIST_TOPIC + wishList.getId(), event);
+        String sharingCode = wishList.getSharingCode();
+        if (sharingCode != null) {
+            messagingTemplate.convertAndSend(SHARED_TOPIC + sharingCode, event);
+        }
+    }
+}
@@ -0,0 +1,645 @@
+package server.services;
+
+import commons.Hotel;
+import commons.LongOrderedSet;
+import commons.Person;
+import commons.WishList;
+import commons.WishListChange;
+import commons.WishListDelta;
+import commons.WishListEvent;
+import commons.WishListOperation;
+import commons.WishListOperationResult;
+import commons.WishListSync;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+import server.database.HotelRepository;
+import server.database.PersonRepository;
+import server.database.WishListRepository;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * Changes the hotels of wishlists with direct statements on the wishlist_hotel join table, and updates
+ * everything derived from wishlists afterwards. Hotels are kept in order by a dense position_index, 0 for the
+ * first hotel. Rows whose position changes are first moved to negative positions, so positions stay unique
+ * at every step.
+ */
+@Service
+public class WishListService {
+    private static final String SELECT_HOTEL_IDS =
+            "SELECT hotel_id FROM wishlist_hotel WHERE wishlist_id = ? ORDER BY position_index";
+    private static final String SELECT_POSITION =
+            "SELECT position_index FROM wishlist_hotel WHERE wishlist_id = ? AND hotel_id = ?";
+    private static final String LOCK_WISH_LIST = "SELECT id FROM wish_list WHERE id = ? FOR UPDATE";
+    private static final String APPEND_HOTEL = "INSERT INTO wishlist_hotel (wishlist_id, hotel_id, position_index) "
+            + "SELECT ?, ?, (SELECT COALESCE(MAX(position_index) + 1, 0) FROM wishlist_hotel WHERE wishlist_id = ?) "
+            + "WHERE NOT EXISTS (SELECT 1 FROM wishlist_hotel WHERE wishlist_id = ? AND hotel_id = ?)";
+    private static final String INSERT_HOTEL =
+            "INSERT INTO wishlist_hotel (wishlist_id, hotel_id, position_index) VALUES (?, ?, ?)";
+    private static final String DELETE_HOTEL = "DELETE FROM wishlist_hotel WHERE wishlist_id = ? AND hotel_id = ?";
+    private static final String PARK_POSITIONS_AFTER =
+            "UPDATE wishlist_hotel SET position_index = -position_index WHERE wishlist_id = ? AND position_index > ?";
+    private static final String UNPARK_SHIFTED_POSITIONS =
+            "UPDATE wishlist_hotel SET position_index = -position_index - 1 WHERE wishlist_id = ? AND position_index < 0";
+    private static final String PARK_UNCOMPACTED_POSITIONS = "MERGE INTO wishlist_hotel t USING (SELECT wishlist_id, hotel_id, "
+            + "ROW_NUMBER() OVER (PARTITION BY wishlist_id ORDER BY position_index, hotel_id) - 1 AS position_index FROM wishlist_hotel) s "
+            + "ON t.wishlist_id = s.wishlist_id AND t.hotel_id = s.hotel_id "
+            + "WHEN MATCHED AND (t.position_index IS NULL OR t.position_index <> s.position_index) "
+            + "THEN UPDATE SET position_index = -1 - s.position_index";
+    private static final String UNPARK_POSITIONS =
+            "UPDATE wishlist_hotel SET position_index = -1 - position_index WHERE position_index < 0";
+    private static final String EXISTS_UNPOSITIONED =
+            "SELECT EXISTS (SELECT 1 FROM wishlist_hotel WHERE position_index IS NULL)";
+    private static final String RENAME = "UPDATE wish_list SET name = ? WHERE id = ?";
+    private static final String INCREMENT_VERSION = "UPDATE wish_list SET version = version + 1 WHERE id = ?";
+    // placeholder name while renaming, so lists can swap names without breaking the unique (owner, name) key
+    private static final String RENAMING_PREFIX = "\u0000";
+    private static final int MAX_ATTEMPTS = 3;
+
+    @Autowired
+    private WishListRepository wishListRepository;
+    @Autowired
+    private PersonRepository personRepository;
+    @Autowired
+    private HotelRepository hotelRepository;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+    @Autowired
+    private ContentVersions contentVersions;
+    @Autowired
+    private HotelPopularityCounters hotelPopularityCounters;
+    @Autowired
+    private OwnerLocks ownerLocks;
+    @Autowired
+    private SharedWishListCache sharedWishListCache;
+    @Autowired
+    private WishListNotifier wishListNotifier;
+    @Autowired
+    private WishListChangeLog changeLog;
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    /**
+     * Creates a wishlist for a person
+     * @param username username of an existing person
+     * @param name name of the wishlist
+     * @return the created wishlist
+     * @throws DuplicateKeyException if the person already has a wishlist with this name
+     */
+    public WishList createWishList(String username, String name) {
+        return ownerLocks.withLock(username, () -> inTransaction(status -> {
+            if (wishListRepository.existsByOwnerUsernameAndName(username, name)) {
+                throw new DuplicateKeyException("Wishlist name already in use: " + name);
+            }
+            WishList wishList = new WishList(name);
+            wishList.setOwner(personRepository.getReferenceById(username));
+            WishList saved = wishListRepository.save(wishList);
+            changeLog.append(username, List.of(WishListChange.created(saved.getId(), name)));
+            return saved;
+        }));
+    }
+
+    /**
+     * Renames a wishlist
+     * @param username username of the owner
+     * @param name current name of the wishlist
+     * @param newName new name of the wishlist
+     * @return the renamed wishlist, empty if the person has no wishlist with the current name
+     * @throws DuplicateKeyException if the person already has another wishlist with the new name
+     */
+    public Optional<WishList> renameWishList(String username, String name, String newName) {
+        Optional<WishList> renamed = ownerLocks.withLock(username, () -> inTransaction(status -> {
+            Optional<WishList> wishList = wishListRepository.findByOwnerUsernameAndName(username, name);
+            if (wishList.isPresent() && !name.equals(newName)) {
+                if (wishListRepository.existsByOwnerUsernameAndName(username, newName)) {
+                    throw new DuplicateKeyException("Wishlist name already in use: " + newName);
+                }
+                wishList.get().setName(newName);
+                changeLog.append(username, List.of(WishListChange.renamed(wishList.get().getId(), newName)));
+            }
+            return wishList;
+        }));
+        if (!name.equals(newName)) {
+            renamed.ifPresent(wishList -> onWishListRenamed(wishList, newName));
+        }
+        return renamed;
+    }
+
+    /**
+     * Deletes a wishlist
+     * @param username username of the owner
+     * @param name name of the wishlist
+     * @return true if the wishlist existed
+     */
+    public boolean deleteWishList(String username, String name) {
+        return hotelPopularityCounters.counted(() -> {
+            Optional<WishList> deleted = ownerLocks.withLock(username, () -> inTransaction(status -> {
+                Optional<WishList> wishList = wishListRepository.findByOwnerUsernameAndName(username, name);
+                wishList.ifPresent(found -> {
+                    found.getHotels().size();
+                    wishListRepository.delete(found);
+                    changeLog.append(username, List.of(WishListChange.deleted(found.getId())));
+                });
+                return wishList;
+            }));
+            deleted.ifPresent(this::onWishListDeleted);
+            return deleted.isPresent();
+        });
+    }
+
+    /**
+     * Deletes a person with all their wishlists
+     * @param username username of the person
+     * @return true if the person existed
+     */
+    public boolean deletePerson(String username) {
+        return hotelPopularityCounters.counted(() -> {
+            Optional<Person> deleted = ownerLocks.withLock(username, () -> inTransaction(status -> {
+                Optional<Person> person = personRepository.findById(username);
+                person.ifPresent(found -> {
+                    found.getWishLists().forEach(wishList -> wishList.getHotels().size());
+                    personRepository.delete(found);
+                    changeLog.deleteAll(username);
+                });
+                return person;
+            }));
+            deleted.ifPresent(person -> person.getWishLists().forEach(this::onWishListDeleted));
+            return deleted.isPresent();
+        });
+    }
+
+    /**
+     * Adds a hotel to the end of a wishlist with a single insert into the join table. The wishlist row is locked
+     * first, so concurrent adds, also from other servers, do not take the same position. Adding a hotel that is
+     * already in the wishlist changes nothing; the unique key of the join table settles concurrent adds.
+     * @param username username of the owner
+     * @param name name of the wishlist
+     * @param hotelId id of an existing hotel
+     * @return the change, with changed false if the hotel already was in the wishlist, empty if the person
+     * has no wishlist with this name
+     */
+    public Optional<WishListDelta> addHotel(String username, String name, long hotelId) {
+        return hotelPopularityCounters.counted(() -> ownerLocks.withLock(username, () -> wishListRepository.findByOwnerUsernameAndName(username, name)
+                .map(wishList -> {
+                    long id = wishList.getId();
+                    boolean changed;
+                    try {
+                        changed = Boolean.TRUE.equals(inTransaction(status -> {
+                            jdbcTemplate.queryForList(LOCK_WISH_LIST, Long.class, id);
+                            if (jdbcTemplate.update(APPEND_HOTEL, id, hotelId, id, id, hotelId) == 0) {
+                                return false;
+                            }
+                            jdbcTemplate.update(INCREMENT_VERSION, id);
+                            changeLog.append(username, List.of(WishListChange.hotelAdded(id, hotelId)));
+                            return true;
+                        }));
+                    } catch (DataIntegrityViolationException e) {
+                        // only a concurrent add of the same hotel leaves nothing to do, other violations are errors
+                        if (jdbcTemplate.queryForList(SELECT_POSITION, Integer.class, id, hotelId).isEmpty()) {
+                            throw e;
+                        }
+                        changed = false;
+                    }
+                    if (changed) {
+                        onHotelAdded(wishList, hotelId);
+                    }
+                    return new WishListDelta(wishList.getName(), WishListDelta.Action.ADDED, hotelId, changed);
+                })));
+    }
+
+    /**
+     * Removes a hotel from a wishlist with a single delete from the join table, and moves the hotels
+     * after it one position up
+     * @param username username of the owner
+     * @param name name of the wishlist
+     * @param hotelId id of the hotel
+     * @return the change, with changed false if the hotel was not in the wishlist, empty if the person
+     * has no wishlist with this name
+     */
+    public Optional<WishListDelta> removeHotel(String username, String name, long hotelId) {
+        return hotelPopularityCounters.counted(() -> ownerLocks.withLock(username, () -> wishListRepository.findByOwnerUsernameAndName(username, name)
+                .map(wishList -> {
+                    long id = wishList.getId();
+                    boolean changed = Boolean.TRUE.equals(inTransaction(status -> {
+                        List<Integer> positions = jdbcTemplate.queryForList(SELECT_POSITION, Integer.class, id, hotelId);
+                        if (positions.isEmpty()) {
+                            return false;
+                        }
+                        jdbcTemplate.update(DELETE_HOTEL, id, hotelId);
+                        jdbcTemplate.update(PARK_POSITIONS_AFTER, id, positions.get(0));
+                        jdbcTemplate.update(UNPARK_SHIFTED_POSITIONS, id);
+                        jdbcTemplate.update(INCREMENT_VERSION, id);
+                        changeLog.append(username, List.of(WishListChange.hotelRemoved(id, hotelId)));
+                        return true;
+                    }));
+                    if (changed) {
+                        onHotelRemoved(wishList, hotelId);
+                    }
+                    return new WishListDelta(wishList.getName(), WishListDelta.Action.REMOVED, hotelId, changed);
+                })));
+    }
+
+    /**
+     * Applies a batch of operations to the wishlists of one person in a single transaction. The operations run
+     * in order against an in-memory copy of the touched lists, then the differences are written with JDBC
+     * batches. An operation that cannot be applied is reported and skipped, the others still apply.
+     * @param username username of the owner of the wishlists
+     * @param operations the operations, wishlists are named as they are when each operation runs
+     * @return the outcome of every operation, in the order of the operations
+     */
+    public List<WishListOperationResult> applyOperations(String username, List<WishListOperation> operations) {
+        return hotelPopularityCounters.counted(() -> ownerLocks.withLock(username, () -> {
+            Batch batch = new Batch(username);
+            List<WishListOperationResult> results = inTransaction(status -> {
+                List<WishListOperationResult> outcome = new ArrayList<>(operations.size());
+                Set<Long> existingHotels = findExistingHotels(operations);
+                for (int i = 0; i < operations.size(); i++) {
+                    WishListOperation operation = operations.get(i);
+                    outcome.add(new WishListOperationResult(i, operation.getType(), batch.apply(operation, existingHotels)));
+                }
+                batch.write();
+                return outcome;
+            });
+            batch.publish();
+            return results;
+        }));
+    }
+
+    /**
+     * Gets what changed in the wishlists of a person since the last sync of a client, or all wishlists when the
+     * client did not sync before or is further behind than the change log reaches
+     * @param username username of the person
+     * @param since sequence returned by the last sync of the client, null for a first sync
+     * @return the changes or all wishlists, with the sequence for the next sync, empty if the person does not exist
+     */
+    public Optional<WishListSync> sync(String username, Long since) {
+        TransactionTemplate readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+        // under the owner lock, so the wishlists of a snapshot match its sequence
+        return ownerLocks.withLock(username, () -> readOnly.execute(status -> {
+            Optional<Person> person = personRepository.findById(username);
+            if (person.isEmpty()) {
+                return Optional.<WishListSync>empty();
+            }
+            long current = changeLog.currentSequence(username);
+            Optional<List<WishListChange>> changes = since == null
+                    ? Optional.empty()
+                    : changeLog.changesSince(username, since, current);
+            if (changes.isPresent()) {
+                return Optional.of(WishListSync.ofChanges(current, changes.get()));
+            }
+            List<WishList> wishLists = person.get().getWishLists();
+            wishLists.forEach(wishList -> wishList.getHotels().size());
+            return Optional.of(WishListSync.ofSnapshot(current, wishLists));
+        }));
+    }
+
+    /**
+     * Runs an action in a new transaction, and runs it again in a fresh persistence context when it loses
+     * against a concurrent change of a versioned entity, at most {@value #MAX_ATTEMPTS} times in total
+     */
+    private <T> T inTransaction(TransactionCallback<T> action) {
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return transaction.execute(action);
+            } catch (OptimisticLockingFailureException e) {
+                if (attempt == MAX_ATTEMPTS) {
+                    throw e;
+                }
+                // the failed attempt left stale entities behind
+                entityManager.clear();
+            }
+        }
+    }
+
+    private Set<Long> findExistingHotels(List<WishListOperation> operations) {
+        List<Long> ids = operations.stream()
+                .filter(operation -> operation.getType() == WishListOperation.Type.ADD && operation.getHotelId() != null)
+                .map(WishListOperation::getHotelId)
+                .distinct()
+                .toList();
+        return ids.isEmpty() ? Set.of() : new HashSet<>(hotelRepository.findExistingIds(ids));
+    }
+
+    /**
+     * Checks whether some wishlist hotels have no position, as they were stored before positions were kept
+     * @return true if {@link #compactHotelPositions()} has rows to number
+     */
+    public boolean hasUnpositionedHotels() {
+        return Boolean.TRUE.equals(jdbcTemplate.queryForObject(EXISTS_UNPOSITIONED, Boolean.class));
+    }
+
+    /**
+     * Renumbers the hotels of every wishlist to positions 0, 1, 2, ... keeping their order. Rows without a
+     * position, from before positions were stored, are placed first in order of hotel id. Every row of the
+     * join table is read, so this is only run after hotels were deleted from wishlists or for unpositioned rows.
+     */
+    public void compactHotelPositions() {
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            jdbcTemplate.update(PARK_UNCOMPACTED_POSITIONS);
+            jdbcTemplate.update(UNPARK_POSITIONS);
+        });
+    }
+
+    /**
+     * Updates everything derived from wishlists after a hotel was added to a wishlist
+     * @param wishList the saved wishlist
+     * @param hotelId id of the added hotel
+     */
+    public void onHotelAdded(WishList wishList, long hotelId) {
+        onContentChanged(wishList);
+        hotelPopularityCounters.add(hotelId, 1);
+        wishListNotifier.publish(wishList, WishListEvent.hotelAdded(wishList.getId(), hotelId));
+    }
+
+    /**
+     * Updates everything derived from wishlists after a hotel was removed from a wishlist
+     * @param wishList the saved wishlist
+     * @param hotelId id of the removed hotel
+     */
+    public void onHotelRemoved(WishList wishList, long hotelId) {
+        onContentChanged(wishList);
+        hotelPopularityCounters.add(hotelId, -1);
+        wishListNotifier.publish(wishList, WishListEvent.hotelRemoved(wishList.getId(), hotelId));
+    }
+
+    /**
+     * Updates everything derived from wishlists after hotels of a wishlist were moved
+     * @param wishList the saved wishlist
+     * @param hotelIds ids of all hotels of the wishlist in their new order
+     */
+    public void onHotelsReordered(WishList wishList, List<Long> hotelIds) {
+        onContentChanged(wishList);
+        wishListNotifier.publish(wishList, WishListEvent.reordered(wishList.getId(), List.copyOf(hotelIds)));
+    }
+
+    /**
+     * Updates everything derived from wishlists after a wishlist was renamed
+     * @param wishList the saved wishlist
+     * @param name the new name of the wishlist
+     */
+    public void onWishListRenamed(WishList wishList, String name) {
+        onContentChanged(wishList);
+        wishListNotifier.publish(wishList, WishListEvent.renamed(wishList.getId(), name));
+    }
+
+    /**
+     * Updates everything derived from wishlists after a wishlist was deleted
+     * @param wishList the deleted wishlist, with its hotels
+     */
+    public void onWishListDeleted(WishList wishList) {
+        onContentChanged(wishList);
+        for (Hotel hotel : wishList.getHotels()) {
+            hotelPopularityCounters.add(hotel.getId(), -1);
+        }
+        wishListNotifier.publish(wishList, WishListEvent.deleted(wishList.getId()));
+    }
+
+    private void onContentChanged(WishList wishList) {
+        contentVersions.wishListChanged(wishList.getSharingCode());
+        sharedWishListCache.invalidate(wishList.getSharingCode());
+    }
+
+    /**
+     * The wishlists touched by one batch of operations, loaded on first use
+     */
+    private class Batch {
+        private final String username;
+        private final Map<String, ListState> byName = new HashMap<>();
+        private final Map<Long, ListState> byId = new HashMap<>();
+        private final List<WishListChange> changes = new ArrayList<>();
+
+        Batch(String username) {
+            this.username = username;
+        }
+
+        WishListOperationResult.Status apply(WishListOperation operation, Set<Long> existingHotels) {
+            if (operation.getType() == null) {
+                return WishListOperationResult.Status.INVALID;
+            }
+            ListState list = find(operation.getWishListName());
+            if (list == null) {
+                return WishListOperationResult.Status.NOT_FOUND;
+            }
+            if (operation.getType() == WishListOperation.Type.RENAME) {
+                return rename(list, operation.getNewName());
+            }
+            Long hotelId = operation.getHotelId();
+            if (hotelId == null) {
+                return WishListOperationResult.Status.INVALID;
+            }
+            return switch (operation.getType()) {
+                case ADD -> add(list, hotelId, existingHotels);
+                case REMOVE -> remove(list, hotelId);
+                case REORDER -> move(list, hotelId, operation.getPosition());
+                default -> WishListOperationResult.Status.INVALID;
+            };
+        }
+
+        private WishListOperationResult.Status add(ListState list, long hotelId, Set<Long> existingHotels) {
+            if (!existingHotels.contains(hotelId)) {
+                return WishListOperationResult.Status.NOT_FOUND;
+            }
+            if (!list.members.add(hotelId)) {
+                return WishListOperationResult.Status.UNCHANGED;
+            }
+            list.hotels.add(hotelId);
+            changes.add(WishListChange.hotelAdded(list.wishList.getId(), hotelId));
+            return WishListOperationResult.Status.APPLIED;
+        }
+
+        private WishListOperationResult.Status remove(ListState list, long hotelId) {
+            if (!list.members.remove(hotelId)) {
+                return WishListOperationResult.Status.UNCHANGED;
+            }
+            // linear in the size of the list, the order has to be kept for the positions written afterwards
+            list.hotels.remove(Long.valueOf(hotelId));
+            changes.add(WishListChange.hotelRemoved(list.wishList.getId(), hotelId));
+            return WishListOperationResult.Status.APPLIED;
+        }
+
+        private WishListOperationResult.Status move(ListState list, long hotelId, Integer position) {
+            if (!list.members.contains(hotelId)) {
+                return WishListOperationResult.Status.NOT_FOUND;
+            }
+            int from = list.hotels.indexOf(hotelId);
+            if (position == null || position < 0 || position >= list.hotels.size()) {
+                return WishListOperationResult.Status.INVALID;
+            }
+            if (from == position) {
+                return WishListOperationResult.Status.UNCHANGED;
+            }
+            list.hotels.add(position, list.hotels.remove(from));
+            changes.add(WishListChange.hotelMoved(list.wishList.getId(), hotelId, position));
+            return WishListOperationResult.Status.APPLIED;
+        }
+
+        private WishListOperationResult.Status rename(ListState list, String newName) {
+            if (newName == null || newName.isBlank() || newName.startsWith(RENAMING_PREFIX)) {
+                return WishListOperationResult.Status.INVALID;
+            }
+            if (newName.equals(list.name)) {
+                return WishListOperationResult.Status.UNCHANGED;
+            }
+            if (find(newName) != null) {
+                return WishListOperationResult.Status.INVALID;
+            }
+            byName.remove(list.name);
+            list.name = newName;
+            byName.put(newName, list);
+            changes.add(WishListChange.renamed(list.wishList.getId(), newName));
+            return WishListOperationResult.Status.APPLIED;
+        }
+
+        /**
+         * Finds a list by its current name, taking earlier renames in the batch into account
+         */
+        private ListState find(String name) {
+            if (name == null) {
+                return null;
+            }
+            ListState list = byName.get(name);
+            if (list != null) {
+                return list;
+            }
+            Optional<WishList> stored = wishListRepository.findByOwnerUsernameAndName(username, name);
+            if (stored.isEmpty() || byId.containsKey(stored.get().getId())) {
+                // not stored, or renamed earlier in this batch
+                return null;
+            }
+            list = new ListState(stored.get(), jdbcTemplate.queryForList(SELECT_HOTEL_IDS, Long.class, stored.get().getId()));
+            byName.put(name, list);
+            byId.put(list.wishList.getId(), list);
+            return list;
+        }
+
+        void write() {
+            List<Object[]> deletes = new ArrayList<>();
+            List<Object[]> inserts = new ArrayList<>();
+            List<Object[]> placeholderNames = new ArrayList<>();
+            List<Object[]> names = new ArrayList<>();
+            List<Object[]> changedLists = new ArrayList<>();
+            for (ListState list : byId.values()) {
+                long id = list.wishList.getId();
+                if (list.isChanged()) {
+                    changedLists.add(new Object[] {id});
+                }
+                Map<Long, Integer> storedPositions = positionsOf(list.stored);
+                Map<Long, Integer> positions = positionsOf(list.hotels);
+                for (Map.Entry<Long, Integer> stored : storedPositions.entrySet()) {
+                    if (!stored.getValue().equals(positions.get(stored.getKey()))) {
+                        deletes.add(new Object[] {id, stored.getKey()});
+                    }
+                }
+                for (Map.Entry<Long, Integer> position : positions.entrySet()) {
+                    if (!position.getValue().equals(storedPositions.get(position.getKey()))) {
+                        inserts.add(new Object[] {id, position.getKey(), position.getValue()});
+                    }
+                }
+                if (list.isRenamed()) {
+                    placeholderNames.add(new Object[] {RENAMING_PREFIX + id, id});
+                    names.add(new Object[] {list.name, id});
+                }
+            }
+            jdbcTemplate.batchUpdate(DELETE_HOTEL, deletes);
+            jdbcTemplate.batchUpdate(INSERT_HOTEL, inserts);
+            jdbcTemplate.batchUpdate(RENAME, placeholderNames);
+            jdbcTemplate.batchUpdate(RENAME, names);
+            jdbcTemplate.batchUpdate(INCREMENT_VERSION, changedLists);
+            changeLog.append(username, changes);
+        }
+
+        private Map<Long, Integer> positionsOf(List<Long> hotels) {
+            Map<Long, Integer> positions = new HashMap<>();
+            for (int i = 0; i < hotels.size(); i++) {
+                positions.put(hotels.get(i), i);
+            }
+            return positions;
+        }
+
+        void publish() {
+            for (ListState list : byId.values()) {
+                if (list.isRenamed()) {
+                    onWishListRenamed(list.wishList, list.name);
+                }
+                Set<Long> stored = new HashSet<>(list.stored);
+                Set<Long> kept = new HashSet<>(list.hotels);
+                for (Long hotelId : kept) {
+                    if (!stored.contains(hotelId)) {
+                        onHotelAdded(list.wishList, hotelId);
+                    }
+                }
+                for (Long hotelId : stored) {
+                    if (!kept.contains(hotelId)) {
+                        onHotelRemoved(list.wishList, hotelId);
+                    }
+                }
+                if (list.isReordered()) {
+                    onHotelsReordered(list.wishList, list.hotels);
+                }
+            }
+        }
+    }
+
+    private static class ListState {
+        private final WishList wishList;
+        private final List<Long> stored;
+        private final List<Long> hotels;
+        private final LongOrderedSet members;
+        private String name;
+
+        ListState(WishList wishList, List<Long> stored) {
+            this.wishList = wishList;
+            this.stored = stored;
+            this.hotels = new ArrayList<>(stored);
+            this.members = new LongOrderedSet(stored.size());
+            stored.forEach(members::add);
+            this.name = wishList.getName();
+        }
+
+        boolean isRenamed() {
+            return !name.equals(wishList.getName());
+        }
+
+        boolean isChanged() {
+            return isRenamed() || !hotels.equals(stored);
+        }
+
+        /**
+         * Checks whether the hotels are in another order than removing and appending alone would give
+         */
+        boolean isReordered() {
+            Set<Long> storedSet = new HashSet<>(stored);
+            List<Long> expected = new ArrayList<>(hotels.size());
+            for (Long hotelId : stored) {
+                if (members.contains(hotelId)) {
+                    expected.add(hotelId);
+                }
+            }
+            for (Long hotelId : hotels) {
+                if (!storedSet.contains(hotelId)) {
+                    expected.add(hotelId);
+                }
+            }
+            return !expected.equals(hotels);
+        }
+    }
+}
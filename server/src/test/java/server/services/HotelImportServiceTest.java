@@ -0,0 +1,106 @@
+package server.services;
+
+import commons.Hotel;
+import commons.Person;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.jdbc.core.JdbcTemplate;
+import server.config.DataLoader;
+import server.database.HotelRepository;
+import server.database.PersonRepository;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:hotel-import;DB_CLOSE_DELAY=-1")
+class HotelImportServiceTest {
+
+    // the catalog is not needed, and loading it would race with the test
+    @MockBean
+    private DataLoader dataLoader;
+    @Autowired
+    private HotelImportService hotelImportService;
+    @Autowired
+    private HotelRepository hotelRepository;
+    @Autowired
+    private PersonRepository personRepository;
+    @Autowired
+    private WishListService wishListService;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private static InputStream document(long... ids) {
+        String hotels = Arrays.stream(ids)
+                .mapToObj(id -> "{\"id\": " + id + ", \"name\": \"Imported " + id + "\", \"stars\": 3, "
+                        + "\"page_url\": \"/" + id + "\", \"photo\": \"cover.jpeg\", \"facilities\": [\"bar\"]}")
+                .collect(Collectors.joining(", "));
+        String json = "{\"hotels\": [" + hotels + "]}";
+        return new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private long nextId() {
+        return jdbcTemplate.queryForObject(
+                "SELECT BASE_VALUE FROM INFORMATION_SCHEMA.SEQUENCES WHERE SEQUENCE_NAME = 'HOTEL_SEQ'", Long.class);
+    }
+
+    @Test
+    void idSequenceMovesPastImportedHotelsAndNeverBack() throws IOException {
+        hotelImportService.importHotels(document(5000));
+        long next = nextId();
+        assertTrue(next > 5000);
+
+        hotelImportService.importHotels(document(10));
+        assertTrue(nextId() >= next);
+
+        long saved = hotelRepository.save(new Hotel("Created", 4, "/created", "cover.jpeg", new ArrayList<>())).getId();
+        assertTrue(saved > 5000);
+    }
+
+    @Test
+    void syncKeepsHotelsThatWereNotImportedFromTheFile() throws IOException {
+        hotelImportService.syncHotels("sync-test.json", document(7001, 7002), read -> {});
+        long created = hotelRepository.save(new Hotel("Created", 4, "/created", "cover.jpeg", new ArrayList<>())).getId();
+        personRepository.save(new Person("sync-test"));
+        wishListService.createWishList("sync-test", "trip");
+        wishListService.addHotel("sync-test", "trip", created);
+        wishListService.addHotel("sync-test", "trip", 7002);
+
+        HotelImportService.Result result = hotelImportService.syncHotels("sync-test.json", document(7001), read -> {});
+
+        assertEquals(1, result.getDeleted());
+        assertFalse(hotelRepository.existsById(7002L));
+        assertTrue(hotelRepository.existsById(created));
+        assertTrue(hotelRepository.existsById(7001L));
+        long wishListId = jdbcTemplate.queryForObject(
+                "SELECT id FROM wish_list WHERE owner_username = 'sync-test' AND name = 'trip'", Long.class);
+        assertEquals(List.of(created), jdbcTemplate.queryForList(
+                "SELECT hotel_id FROM wishlist_hotel WHERE wishlist_id = ?", Long.class, wishListId));
+    }
+
+    @Test
+    void skipsHotelsWithoutAPositiveOrUniqueId() throws IOException {
+        String json = "[{\"name\": \"No id\", \"stars\": 3}, {\"id\": -4, \"name\": \"Negative\", \"stars\": 3}, "
+                + "{\"id\": 8001, \"name\": \"First\", \"stars\": 3}, {\"id\": 8001, \"name\": \"Second\", \"stars\": 4}]";
+
+        HotelImportService.Result result = hotelImportService.importHotels(
+                new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8)));
+
+        assertEquals(1, result.getWritten());
+        assertEquals(3, result.getSkipped());
+        assertFalse(hotelRepository.existsById(0L));
+        assertFalse(hotelRepository.existsById(-4L));
+        assertEquals("First", hotelRepository.findById(8001L).orElseThrow().getName());
+    }
+}
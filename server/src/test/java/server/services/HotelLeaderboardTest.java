@@ -0,0 +1,58 @@
+package server.services;
+
+import commons.FacilityDictionary;
+import commons.Hotel;
+import commons.HotelFacility;
+import commons.HotelRanking;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class HotelLeaderboardTest {
+
+    private static Hotel hotel(long id, int stars, List<HotelFacility> facilities) {
+        Hotel hotel = mock(Hotel.class);
+        when(hotel.getId()).thenReturn(id);
+        when(hotel.getName()).thenReturn("Hotel " + id);
+        when(hotel.getStars()).thenReturn(stars);
+        when(hotel.getFacilities()).thenReturn(facilities);
+        return hotel;
+    }
+
+    private static List<Long> ids(List<HotelRanking> rankings) {
+        return rankings.stream().map(HotelRanking::getId).toList();
+    }
+
+    @Test
+    void filtersOnFacilitiesThatDoNotFitInTheMask() {
+        List<HotelFacility> facilities = new ArrayList<>();
+        for (int i = 0; i <= FacilityDictionary.MASK_CAPACITY; i++) {
+            facilities.add(FacilityDictionary.intern("leaderboard-test-" + i));
+        }
+        String first = facilities.get(0).getName();
+        String last = facilities.get(facilities.size() - 1).getName();
+        HotelLeaderboard leaderboard = new HotelLeaderboard(1.0, 1.0);
+        leaderboard.put(hotel(1, 5, facilities.subList(0, 1)));
+        leaderboard.put(hotel(2, 4, facilities));
+        leaderboard.put(hotel(3, 3, facilities.subList(facilities.size() - 1, facilities.size())));
+
+        assertFalse(FacilityDictionary.fitsInMask(last));
+        assertEquals(List.of(2L, 3L), ids(leaderboard.top(HotelLeaderboard.Metric.STARS, List.of(last), 10)));
+        assertEquals(List.of(2L), ids(leaderboard.top(HotelLeaderboard.Metric.STARS, List.of(first, last), 10)));
+        assertEquals(List.of(1L, 2L, 3L), ids(leaderboard.top(HotelLeaderboard.Metric.STARS, List.of(), 10)));
+    }
+
+    @Test
+    void findsNothingForAnUnknownFacility() {
+        HotelLeaderboard leaderboard = new HotelLeaderboard(1.0, 1.0);
+        leaderboard.put(hotel(1, 5, List.of()));
+
+        assertEquals(List.of(), leaderboard.top(HotelLeaderboard.Metric.STARS, List.of("leaderboard-test-unknown"), 10));
+    }
+}
@@ -0,0 +1,64 @@
+package server.services;
+
+import commons.Hotel;
+import commons.HotelNameMatch;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class HotelNameIndexTest {
+
+    private static Hotel hotel(long id, String name) {
+        Hotel hotel = mock(Hotel.class);
+        when(hotel.getId()).thenReturn(id);
+        when(hotel.getName()).thenReturn(name);
+        return hotel;
+    }
+
+    private static List<Long> ids(List<HotelNameMatch> matches) {
+        return matches.stream().map(HotelNameMatch::getId).toList();
+    }
+
+    @Test
+    void findsAsciiNamesIgnoringAccentsAndPunctuation() {
+        HotelNameIndex index = new HotelNameIndex();
+        index.put(hotel(1, "H\u00f4tel-\u00c9t\u00e9 Paris"));
+
+        assertEquals(List.of(1L), ids(index.search("hotel ete", 0, 10)));
+    }
+
+    @Test
+    void findsNamesInNonLatinScripts() {
+        HotelNameIndex index = new HotelNameIndex();
+        index.put(hotel(1, "\u0413\u0440\u0430\u043d\u0434 \u041e\u0442\u0435\u043b\u044c"));
+        index.put(hotel(2, "\u039e\u03b5\u03bd\u03bf\u03b4\u03bf\u03c7\u03b5\u03af\u03bf \u0391\u03b8\u03ae\u03bd\u03b1"));
+        index.put(hotel(3, "\u6771\u4eac\u30db\u30c6\u30eb"));
+
+        assertEquals(List.of(1L), ids(index.search("\u0433\u0440\u0430\u043d\u0434", 0, 10)));
+        assertEquals(List.of(2L), ids(index.search("\u03b1\u03b8\u03b7\u03bd\u03b1", 0, 10)));
+        assertEquals(List.of(3L), ids(index.search("\u6771\u4eac", 0, 10)));
+    }
+
+    @Test
+    void findsNonLatinNamesWithATypo() {
+        HotelNameIndex index = new HotelNameIndex();
+        index.put(hotel(1, "\u0413\u0440\u0430\u043d\u0434 \u041e\u0442\u0435\u043b\u044c"));
+
+        assertEquals(List.of(1L), ids(index.search("\u043e\u0442\u0435\u043b", 1, 10)));
+    }
+
+    @Test
+    void findsShortWordsWithTwoTypos() {
+        HotelNameIndex index = new HotelNameIndex();
+        index.put(hotel(1, "Grand Paris"));
+        index.put(hotel(2, "Roma"));
+
+        // "pqrls" shares no trigram with "paris"
+        assertEquals(List.of(1L), ids(index.search("pqrls", 2, 10)));
+        assertEquals(List.of(), ids(index.search("pqrls", 1, 10)));
+    }
+}
@@ -0,0 +1,113 @@
+package server.services;
+
+import commons.Hotel;
+import commons.Person;
+import commons.WishListDelta;
+import commons.WishListSummary;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.jdbc.core.JdbcTemplate;
+import server.config.DataLoader;
+import server.database.HotelRepository;
+import server.database.PersonRepository;
+import server.database.WishListRepository;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Runs parallel writers against the wishlists of one person. Every writer adds its own hotels and one hotel
+ * shared by all writers to the same wishlist, and renames a second wishlist back and forth.
+ */
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:wishlist-concurrency;DB_CLOSE_DELAY=-1")
+class WishListServiceConcurrencyTest {
+
+    private static final int WRITERS = 8;
+    private static final int HOTELS_PER_WRITER = 10;
+
+    // the catalog is not needed, and loading it would race with the test
+    @MockBean
+    private DataLoader dataLoader;
+    @Autowired
+    private WishListService wishListService;
+    @Autowired
+    private HotelRepository hotelRepository;
+    @Autowired
+    private PersonRepository personRepository;
+    @Autowired
+    private WishListRepository wishListRepository;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void parallelAddsAndRenamesAreNotLost() throws Exception {
+        String username = "concurrency";
+        personRepository.save(new Person(username));
+        wishListService.createWishList(username, "shared");
+        wishListService.createWishList(username, "renamed-0");
+        long common = hotelRepository.save(new Hotel("Common", 3, "", "", new ArrayList<>())).getId();
+        List<List<Long>> hotelsPerWriter = new ArrayList<>();
+        for (int writer = 0; writer < WRITERS; writer++) {
+            List<Long> hotels = new ArrayList<>();
+            for (int i = 0; i < HOTELS_PER_WRITER; i++) {
+                hotels.add(hotelRepository.save(new Hotel("Hotel " + writer + "-" + i, 3, "", "", new ArrayList<>())).getId());
+            }
+            hotelsPerWriter.add(hotels);
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(WRITERS);
+        List<Future<Integer>> commonAdds = new ArrayList<>();
+        try {
+            for (List<Long> hotels : hotelsPerWriter) {
+                Callable<Integer> writer = () -> {
+                    int added = 0;
+                    for (long hotelId : hotels) {
+                        assertTrue(wishListService.addHotel(username, "shared", hotelId).map(WishListDelta::isChanged).orElseThrow());
+                        if (wishListService.addHotel(username, "shared", common).map(WishListDelta::isChanged).orElseThrow()) {
+                            added++;
+                        }
+                        // the other writers may have renamed it already
+                        wishListService.renameWishList(username, "renamed-0", "renamed-1");
+                        wishListService.renameWishList(username, "renamed-1", "renamed-0");
+                    }
+                    return added;
+                };
+                commonAdds.add(executor.submit(writer));
+            }
+            int added = 0;
+            for (Future<Integer> future : commonAdds) {
+                added += future.get();
+            }
+            assertEquals(1, added);
+        } finally {
+            executor.shutdown();
+        }
+
+        Map<String, Integer> hotelCounts = wishListRepository.findSummariesByOwner(username).stream()
+                .collect(Collectors.toMap(WishListSummary::getName, WishListSummary::getHotelCount));
+        assertEquals(Map.of("shared", WRITERS * HOTELS_PER_WRITER + 1, "renamed-0", 0), hotelCounts);
+
+        long sharedId = wishListRepository.findByOwnerUsernameAndName(username, "shared").orElseThrow().getId();
+        List<Integer> positions = jdbcTemplate.queryForList(
+                "SELECT position_index FROM wishlist_hotel WHERE wishlist_id = ? ORDER BY position_index", Integer.class, sharedId);
+        assertEquals(IntStream.range(0, WRITERS * HOTELS_PER_WRITER + 1).boxed().toList(), positions);
+        List<Long> stored = jdbcTemplate.queryForList(
+                "SELECT hotel_id FROM wishlist_hotel WHERE wishlist_id = ? ORDER BY position_index", Long.class, sharedId);
+        for (List<Long> hotels : hotelsPerWriter) {
+            // every writer added its hotels in order, whatever the others did in between
+            assertEquals(hotels, stored.stream().filter(hotels::contains).toList());
+        }
+    }
+}